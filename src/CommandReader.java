@@ -0,0 +1,256 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffered reader of the commands typed by the user, working directly on bytes.
+ * <p>
+ * It reads tokens and lines the way {@link java.util.Scanner} does with its default
+ * delimiter: tokens are separated by whitespace, and a line ends at "\n", "\r" or "\r\n".
+ * Numbers are parsed straight from the input buffer, without building a string.
+ * Input is decoded as UTF-8; only ASCII whitespace separates tokens.
+ */
+public class CommandReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final Flushable output;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    // Whether the input ends where the buffer does, see readAhead.
+    private boolean holding;
+
+    // Bytes of the token or line being read.
+    private byte[] text;
+
+    /**
+     * Creates a reader of the given input stream.
+     *
+     * @param in The input stream to read from.
+     * @param output The output flushed before waiting for more input, so that the
+     *               responses to the commands read so far are seen before it.
+     */
+    public CommandReader(InputStream in, Flushable output) {
+        this.in = in;
+        this.output = output;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.text = new byte[256];
+    }
+
+    /**
+     * Skips whitespace and returns the next token.
+     *
+     * @return The next token.
+     * @throws NoSuchElementException if the input has no more tokens.
+     */
+    public String next() {
+        skipWhitespace();
+        int length = 0;
+        int b;
+        while ((b = peek()) != -1 && !isWhitespace(b)) {
+            length = append(length, b);
+            position++;
+        }
+        return new String(text, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Skips whitespace and reads the next token as an int.
+     *
+     * @return The int read.
+     * @throws InputMismatchException if the token is not an int.
+     * @throws NoSuchElementException if the input has no more tokens.
+     */
+    public int nextInt() {
+        long value = nextLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new InputMismatchException("For input string: \"" + value + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Skips whitespace and reads the next token as a long, with an optional sign.
+     *
+     * @return The long read.
+     * @throws InputMismatchException if the token is not a long.
+     * @throws NoSuchElementException if the input has no more tokens.
+     */
+    public long nextLong() {
+        skipWhitespace();
+        int b = peek();
+        boolean negative = b == '-';
+        if (b == '-' || b == '+') {
+            position++;
+            b = peek();
+        }
+        if (b < '0' || b > '9') {
+            throw new InputMismatchException();
+        }
+        // Accumulated as a negative number, whose range is one larger.
+        long limitValue = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long value = 0;
+        while ((b = peek()) != -1 && !isWhitespace(b)) {
+            if (b < '0' || b > '9') {
+                throw new InputMismatchException();
+            }
+            int digit = b - '0';
+            if (value < (limitValue + digit) / 10) {
+                throw new InputMismatchException();
+            }
+            value = value * 10 - digit;
+            position++;
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Returns the rest of the current line, without its line terminator.
+     *
+     * @return The rest of the current line.
+     * @throws NoSuchElementException if the input has no more lines.
+     */
+    public String nextLine() {
+        if (peek() == -1) {
+            throw new NoSuchElementException("No line found");
+        }
+        int length = 0;
+        int b;
+        while ((b = peek()) != -1 && b != '\n' && b != '\r') {
+            length = append(length, b);
+            position++;
+        }
+        if (b != -1) {
+            position++;
+            if (b == '\r' && peek() == '\n') {
+                position++;
+            }
+        }
+        return new String(text, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads ahead until the buffer holds the given number of lines, or the input ends.
+     * Until {@link #endReadAhead()} is called, the input then ends where the buffer
+     * does, so that reading those lines never waits for more input.
+     *
+     * @param lines The number of lines to read ahead, counting the rest of the current one.
+     */
+    public void readAhead(int lines) {
+        int scanned = 0;
+        while (true) {
+            for (; lines > 0 && position + scanned < limit; scanned++) {
+                int i = position + scanned;
+                // "\r\n" ends a single line.
+                if (buffer[i] == '\r' || (buffer[i] == '\n' && (scanned == 0 || buffer[i - 1] != '\r'))) {
+                    lines--;
+                }
+            }
+            if (lines == 0 || !fillAhead()) {
+                break;
+            }
+        }
+        holding = true;
+    }
+
+    /**
+     * Lets the reader wait for more input again, see {@link #readAhead(int)}.
+     */
+    public void endReadAhead() {
+        holding = false;
+    }
+
+    private void skipWhitespace() {
+        int b;
+        while ((b = peek()) != -1 && isWhitespace(b)) {
+            position++;
+        }
+        if (b == -1) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    /**
+     * Returns the next byte without consuming it, or -1 at the end of the input.
+     */
+    private int peek() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private boolean fill() {
+        if (holding) {
+            return false;
+        }
+        try {
+            output.flush();
+            int read;
+            do {
+                read = in.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads more input after the bytes not read yet, growing the buffer when they fill it.
+     *
+     * @return false if the input ended.
+     */
+    private boolean fillAhead() {
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+        }
+        try {
+            output.flush();
+            int read;
+            do {
+                read = in.read(buffer, limit, buffer.length - limit);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int append(int length, int b) {
+        if (length == text.length) {
+            byte[] larger = new byte[2 * text.length];
+            System.arraycopy(text, 0, larger, 0, length);
+            text = larger;
+        }
+        text[length] = (byte) b;
+        return length + 1;
+    }
+
+    /**
+     * Returns true if the byte is an ASCII character for which
+     * {@link Character#isWhitespace(char)} holds.
+     */
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+    }
+}
@@ -0,0 +1,158 @@
+import SystemManager.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+
+/**
+ * Serves the commands of the console to many clients at once, over local sockets.
+ * <p>
+ * Every connection is a session that speaks the same command language as the
+ * console, against one shared system. Each session runs on its own virtual thread.
+ * The lines of a command are received before it runs, so that a client that sends
+ * part of a command does not hold up the others; arguments missing from those
+ * lines end the session. A command then runs, from parsing its arguments to
+ * printing its answer, as one action on the {@link SharedSystem}: queries run in
+ * parallel with each other, and with a locking system so do moves of students,
+ * while the other commands run alone. Its answer is only sent once the action is
+ * done, so that a client slow to read it does not hold up the others either.
+ * <p>
+ * Exit only ends the session. The areas are saved when the server stops.
+ */
+public class CommandServer {
+
+    public static final int DEFAULT_PORT = 4040;
+
+    private final ServerSocket socket;
+    private final SharedSystem manager;
+
+    /**
+     * Creates a server listening on the given port of the loopback address.
+     *
+     * @param port The port to listen on.
+     * @param manager The system shared by the sessions.
+     */
+    public CommandServer(int port, SharedSystem manager) throws IOException {
+        this.socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.manager = manager;
+    }
+
+    /**
+     * Starts a server and serves clients until the program is stopped.
+     *
+     * @param args The port to listen on, {@link #DEFAULT_PORT} if none is given,
+     *             then {@value SharedSystem#EVENT_LOOP} to run the system on a single
+     *             writer thread instead of locking it.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SharedSystem manager = SharedSystem.create(args.length > 1 ? args[1] : null);
+        CommandServer server = new CommandServer(port, manager);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            manager.shutdown();
+        }));
+        server.serve();
+    }
+
+    /**
+     * Accepts clients until the server is closed, serving each on a new virtual thread.
+     */
+    public void serve() {
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                Socket client = socket.accept();
+                sessions.execute(new Session(client));
+            }
+        } catch (IOException e) {
+            // The server was closed.
+        }
+    }
+
+    /**
+     * Stops accepting clients.
+     */
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Connection of one client.
+     */
+    private final class Session implements Runnable {
+
+        private final Socket client;
+        private final ResponseWriter answer;
+        private CommandReader scanner;
+
+        // Whether the last command was answered as a query.
+        private boolean answered;
+
+        Session(Socket client) {
+            this.client = client;
+            this.answer = new ResponseWriter();
+        }
+
+        @Override
+        public void run() {
+            try (client) {
+                ResponseWriter out = new ResponseWriter(client.getOutputStream(), StandardCharsets.UTF_8);
+                scanner = new CommandReader(client.getInputStream(), out);
+                try {
+                    Commands cmd;
+                    do {
+                        cmd = Commands.fromString(scanner.next());
+                        Commands command = cmd;
+                        scanner.readAhead(cmd != null ? cmd.lines() : 1);
+                        if (cmd == Commands.GO || cmd == Commands.MOVE) {
+                            manager.moving(system -> Main.execute(command, scanner, system, answer));
+                        } else {
+                            manager.reading(system -> answerQuery(command, system));
+                            if (!answered) {
+                                manager.writing(system -> runCommand(command, system));
+                            }
+                        }
+                        scanner.endReadAhead();
+                        out.print(answer);
+                    } while (cmd != Commands.EXIT);
+                } finally {
+                    out.flush();
+                }
+            } catch (IOException | UncheckedIOException | NoSuchElementException e) {
+                // The client went away, or sent something that is not a command.
+            }
+        }
+
+        /**
+         * Answers the command if it is a query, leaving its arguments unread otherwise.
+         */
+        private void answerQuery(Commands cmd, SystemManager system) {
+            Query query = Main.readQuery(cmd, scanner, system);
+            answered = query != null;
+            if (answered) {
+                query.answer(answer);
+            }
+        }
+
+        /**
+         * Runs the command. Another session may have loaded or closed an area since
+         * it was found not to be a query, so it may be one now.
+         */
+        private void runCommand(Commands cmd, SystemManager system) {
+            Query query = Main.readQuery(cmd, scanner, system);
+            if (query != null) {
+                query.answer(answer);
+            } else if (cmd == Commands.EXIT) {
+                Main.handleSessionExit(answer);
+            } else {
+                Main.execute(cmd, scanner, system, answer);
+            }
+        }
+    }
+}
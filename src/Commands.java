@@ -126,32 +126,88 @@ public enum Commands {
      */
     EXIT;
 
+    // Size of the lookup table, a power of two.
+    private static final int TABLE_SIZE = 64;
+
+    // Multiplier of the hash, chosen so that no two commands share a slot.
+    private static final int MULTIPLIER;
+
+    // Commands by the slot of their name.
+    private static final Commands[] TABLE;
+
+    static {
+        int multiplier = 31;
+        Commands[] table;
+        while ((table = buildTable(multiplier)) == null) {
+            multiplier += 2;
+        }
+        MULTIPLIER = multiplier;
+        TABLE = table;
+    }
+
     /**
      * A static factory method to convert a raw string from user input
      * into a valid {@code Commands} constant.
      * <p>
      * The comparison is case-insensitive and trims whitespace.
+     * The command is looked up in a perfect hash table, so only one
+     * constant is ever compared with the input.
      *
      * @param command The raw string input from the user (e.g., "exit", "STUDENT").
-     * @return The corresponding {@code Commands} constant.
-     * @throws IllegalArgumentException if the command string is null or
-     * does not match any valid command.
+     * @return The corresponding {@code Commands} constant, or null if there is none.
+     * @throws IllegalArgumentException if the command string is null.
      */
     public static Commands fromString(String command) {
         if (command == null) {
             throw new IllegalArgumentException("null word");
         }
 
-        // Iterate through all enum values
-        for (Commands e : Commands.values()) {
-            // Compare the enum constant's name (e.g., "BOUNDS")
-            // with the trimmed, case-insensitive input string.
-            if (e.name().equalsIgnoreCase(command.trim())) {
-                return e;
+        String word = command.trim();
+        Commands candidate = TABLE[slot(word, MULTIPLIER)];
+        return candidate != null && candidate.name().equalsIgnoreCase(word) ? candidate : null;
+    }
+
+    /**
+     * Returns the number of lines the command is typed on, counting
+     * the rest of the line it starts.
+     *
+     * @return The number of lines of the command and its arguments.
+     */
+    public int lines() {
+        return switch (this) {
+            case STUDENT -> 4;
+            case GO, MOVE, STAR, FIND -> 2;
+            default -> 1;
+        };
+    }
+
+    /**
+     * Places every command in a table by its slot with the given multiplier.
+     *
+     * @return The table, or null if two commands fell in the same slot.
+     */
+    private static Commands[] buildTable(int multiplier) {
+        Commands[] table = new Commands[TABLE_SIZE];
+        for (Commands e : values()) {
+            int slot = slot(e.name(), multiplier);
+            if (table[slot] != null) {
+                return null;
             }
+            table[slot] = e;
         }
+        return table;
+    }
 
-        // No match found
-        return null;
+    /**
+     * Returns the slot of a word. Characters are folded the way
+     * {@link String#equalsIgnoreCase(String)} compares them, so that
+     * words equal ignoring case share the same slot.
+     */
+    private static int slot(String word, int multiplier) {
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = hash * multiplier + Character.toLowerCase(Character.toUpperCase(word.charAt(i)));
+        }
+        return (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,642 @@
+import Exceptions.*;
+import Services.*;
+import Students.*;
+import SystemManager.*;
+import dataStructures.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serves the operations of the system as an HTTP API with JSON answers, over the
+ * loopback address, using the HTTP server of the JDK.
+ * <p>
+ * Every request runs on its own virtual thread, as one action on the
+ * {@link SharedSystem}: GET requests run in parallel, and with a locking system so
+ * do the POST requests that move students, while the other POST requests run alone.
+ * Nothing is sent to the client while the system is held, so that a client slow to
+ * read does not hold up the others, and an operation that fails halfway still answers
+ * with its own status. A single object is built in memory by the action. A list is
+ * only read by the action, each element into the few fields it shows; once the
+ * system is released, the list is streamed to the client in chunks, each element
+ * written as JSON as it is sent.
+ * <p>
+ * Parameters are taken from the query string, and from a form-encoded body for
+ * POST requests. A failed operation answers with the status of its failure and
+ * a body such as {@code {"error":"StudentNotFound"}}:
+ * 400 for invalid parameters, 404 for something missing, and 409 for an
+ * operation the current state does not allow. Each failure of the system has
+ * its status; any other answers 500.
+ *
+ * <pre>
+ * GET  /area                                  current area
+ * POST /area           name top left bottom right   createArea
+ * POST /area/load      name                   loadArea
+ * POST /area/save                             saveArea
+ * GET  /services                              listServices
+ * POST /services       type name latitude longitude price value   addService
+ * GET  /services/ranking                      getRankedServices
+ * GET  /services/ranked  type stars student   getRankedServicesByTypeAndStars
+ * GET  /services/tag     tag                  listServicesWithTag
+ * GET  /services/users   service [order]      listUsersInService
+ * POST /services/review  service stars comment   addReviewToService
+ * GET  /students         [filter] [offset limit]   listStudents
+ * POST /students         type name country lodging   addStudent
+ * GET  /students/where   student              whereIsStudent
+ * GET  /students/visited student              listVisitedLocations
+ * GET  /students/find    student type         findRelevantServiceForStudent
+ * POST /students/go      student service      goToLocation
+ * POST /students/move    student lodging      moveStudentHome
+ * POST /students/leave   student              removeStudent
+ * </pre>
+ */
+public class HttpApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int BODY_BUFFER_SIZE = 1 << 14;
+
+    // Package of the exceptions the system fails with.
+    private static final String FAILURES_PACKAGE = NoAreaLoadedException.class.getPackageName();
+
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CONFLICT = 409;
+    private static final int INTERNAL_ERROR = 500;
+
+    /**
+     * Answer to a request, given its parameters, run as an action on the shared system.
+     * It works on the system given to the action.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        void answer(SystemManager system, Map<String, String> params, Response response) throws Exception;
+    }
+
+    /**
+     * Thrown when a parameter is missing or is not a number.
+     */
+    private static final class BadParameterException extends Exception {
+        BadParameterException() {
+            super();
+        }
+    }
+
+    private final HttpServer server;
+    private final SharedSystem manager;
+
+    /**
+     * Creates a server listening on the given port of the loopback address.
+     *
+     * @param port The port to listen on.
+     * @param manager The system shared by the requests.
+     */
+    public HttpApiServer(int port, SharedSystem manager) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.manager = manager;
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        createEndpoints();
+    }
+
+    /**
+     * Starts a server and serves requests until the program is stopped.
+     *
+     * @param args The port to listen on, {@link #DEFAULT_PORT} if none is given,
+     *             then {@value SharedSystem#EVENT_LOOP} to run the system on a single
+     *             writer thread instead of locking it.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SharedSystem manager = SharedSystem.create(args.length > 1 ? args[1] : null);
+        HttpApiServer server = new HttpApiServer(port, manager);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            manager.shutdown();
+        }));
+        server.start();
+    }
+
+    /**
+     * Starts serving requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops serving requests, letting the requests being answered finish.
+     */
+    public void close() {
+        server.stop(1);
+    }
+
+    private void createEndpoints() {
+        createEndpoint("/area", false, (system, params, response) ->
+            response.object().field("name", system.getCurrentAreaName()).end(),
+        (system, params, response) -> {
+            String name = text(params, "name");
+            system.createArea(name, number(params, "top"), number(params, "left"),
+                number(params, "bottom"), number(params, "right"));
+            response.object().field("name", name).end();
+        });
+        createEndpoint("/area/load", false, null, (system, params, response) -> {
+            system.loadArea(text(params, "name"));
+            response.object().field("name", system.getCurrentAreaName()).end();
+        });
+        createEndpoint("/area/save", true, null, (system, params, response) -> {
+            system.saveArea();
+            response.object().field("name", system.getCurrentAreaName()).end();
+        });
+
+        createEndpoint("/services", true, (system, params, response) -> {
+            Iterator<? extends ServiceReadOnly> services;
+            try {
+                services = system.listServices();
+            } catch (NoServicesException e) {
+                services = new DoublyLinkedList<ServiceReadOnly>().iterator();
+            }
+            response.array(services, service -> ServiceFields.of(system, service));
+        }, (system, params, response) -> {
+            String name = text(params, "name");
+            system.addService(ServiceType.fromString(text(params, "type")), name,
+                number(params, "latitude"), number(params, "longitude"),
+                integer(params, "price"), integer(params, "value"));
+            writeService(system, response, system.getServiceByName(name));
+        });
+        createEndpoint("/services/ranking", true, (system, params, response) ->
+            response.array(system.getRankedServices(), service -> ServiceFields.of(system, service)), null);
+        createEndpoint("/services/ranked", true, (system, params, response) -> response.array(
+            system.getRankedServicesByTypeAndStars(ServiceType.fromString(text(params, "type")),
+                integer(params, "stars"), text(params, "student")),
+            service -> ServiceFields.of(system, service)), null);
+        createEndpoint("/services/tag", true, (system, params, response) -> response.array(
+            system.listServicesWithTag(text(params, "tag").toLowerCase().trim()),
+            service -> ServiceFields.of(system, service)), null);
+        createEndpoint("/services/users", true, (system, params, response) -> {
+            String order = params.get("order") == null ? ">" : params.get("order");
+            TwoWayIterator<? extends StudentReadOnly> it = system.listUsersInService(order, text(params, "service"));
+            if (">".equals(order)) {
+                response.array(it, student -> StudentFields.of(system, student));
+            } else {
+                List<StudentReadOnly> reversed = new DoublyLinkedList<>();
+                while (it.hasPrevious()) {
+                    reversed.addLast(it.previous());
+                }
+                response.array(reversed.iterator(), student -> StudentFields.of(system, student));
+            }
+        }, null);
+        createEndpoint("/services/review", true, null, (system, params, response) -> {
+            String name = text(params, "service");
+            system.addReviewToService(name, integer(params, "stars"), text(params, "comment"));
+            writeService(system, response, system.getServiceByName(name));
+        });
+
+        createEndpoint("/students", true, (system, params, response) -> {
+            if (params.get("offset") != null) {
+                int offset = integer(params, "offset");
+                int limit = integer(params, "limit");
+                if (offset < 0 || limit <= 0) {
+                    throw new BadParameterException();
+                }
+                response.array(system.listStudents(offset, limit), student -> StudentFields.of(system, student));
+                return;
+            }
+            String filter = params.get("filter") == null ? "all" : params.get("filter");
+            response.array(system.listStudents(filter), student -> StudentFields.of(system, student));
+        }, (system, params, response) -> {
+            String name = text(params, "name");
+            system.addStudent(StudentType.fromString(text(params, "type")), name,
+                text(params, "country"), text(params, "lodging"));
+            writeStudent(system, response, system.getStudentByName(name));
+        });
+        createEndpoint("/students/where", true, (system, params, response) ->
+            writeService(system, response, system.whereIsStudent(text(params, "student"))), null);
+        createEndpoint("/students/visited", true, (system, params, response) -> {
+            Iterator<? extends ServiceReadOnly> visited;
+            try {
+                visited = system.listVisitedLocations(text(params, "student"));
+            } catch (NoVisitedLocationsException e) {
+                visited = new DoublyLinkedList<ServiceReadOnly>().iterator();
+            }
+            response.array(visited, service -> ServiceFields.of(system, service));
+        }, null);
+        createEndpoint("/students/find", true, (system, params, response) -> writeService(system, response,
+            system.findRelevantServiceForStudent(text(params, "student"),
+                ServiceType.fromString(text(params, "type")))), null);
+        createMoveEndpoint("/students/go", (system, params, response) -> {
+            String student = text(params, "student");
+            String service = text(params, "service");
+            system.goToLocation(student, service);
+            response.object()
+                .field("student", system.getStudentName(system.getStudentByName(student)))
+                .field("service", system.getServiceName(system.getServiceByName(service)))
+                .field("distracted", system.isStudentDistracted(student, service))
+                .end();
+        });
+        createMoveEndpoint("/students/move", (system, params, response) -> {
+            String student = text(params, "student");
+            system.moveStudentHome(student, text(params, "lodging"));
+            writeStudent(system, response, system.getStudentByName(student));
+        });
+        createEndpoint("/students/leave", true, null, (system, params, response) -> {
+            String name = text(params, "student");
+            StudentReadOnly student = system.getStudentByName(name);
+            system.removeStudent(name);
+            response.object().field("name", student.getName()).end();
+        });
+    }
+
+    /**
+     * Answers requests to a path with the given endpoints, null if the method is not allowed.
+     *
+     * @param needsArea Whether the endpoints fail with NoAreaLoaded when no area is loaded.
+     */
+    private void createEndpoint(String path, boolean needsArea, Endpoint get, Endpoint post) {
+        createEndpoint(path, needsArea, get, post, false);
+    }
+
+    /**
+     * Answers POST requests to a path with an endpoint that only moves students,
+     * and may run in parallel with other such endpoints.
+     */
+    private void createMoveEndpoint(String path, Endpoint post) {
+        createEndpoint(path, true, null, post, true);
+    }
+
+    private void createEndpoint(String path, boolean needsArea, Endpoint get, Endpoint post, boolean postMoves) {
+        server.createContext(path, exchange -> {
+            try (exchange) {
+                // Contexts also match longer paths.
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    sendError(exchange, NOT_FOUND, "NotFound");
+                    return;
+                }
+                Endpoint endpoint = switch (exchange.getRequestMethod()) {
+                    case "GET" -> get;
+                    case "POST" -> post;
+                    default -> null;
+                };
+                if (endpoint == null) {
+                    sendError(exchange, METHOD_NOT_ALLOWED, "MethodNotAllowed");
+                    return;
+                }
+                Map<String, String> params = readParams(exchange);
+                Response response = new Response(exchange);
+                Consumer<SystemManager> call = system -> {
+                    try {
+                        if (needsArea && !system.hasAreaLoaded()) {
+                            throw new NoAreaLoadedException();
+                        }
+                        endpoint.answer(system, params, response);
+                    } catch (RuntimeException e) {
+                        // Some failures of the system are unchecked, other unchecked exceptions are bugs.
+                        if (!e.getClass().getPackageName().equals(FAILURES_PACKAGE)) {
+                            throw e;
+                        }
+                        response.fail(e);
+                    } catch (Exception e) {
+                        response.fail(e);
+                    }
+                };
+                if (endpoint == get) {
+                    manager.reading(call);
+                } else if (postMoves) {
+                    manager.moving(call);
+                } else {
+                    manager.writing(call);
+                }
+                response.finish();
+            }
+        });
+    }
+
+    private static void writeService(SystemManager system, Response response, ServiceReadOnly service) throws IOException {
+        ServiceFields.of(system, service).writeTo(response);
+    }
+
+    private static void writeStudent(SystemManager system, Response response, StudentReadOnly student) throws IOException {
+        StudentFields.of(system, student).writeTo(response);
+    }
+
+    /**
+     * What an answer shows of a service, read while the system is held.
+     */
+    private record ServiceFields(String name, ServiceType type, long latitude, long longitude, int stars)
+            implements JsonValue {
+
+        static ServiceFields of(SystemManager system, ServiceReadOnly service) {
+            return new ServiceFields(system.getServiceName(service), system.getServiceType(service),
+                system.getServiceLatitude(service), system.getServiceLongitude(service), service.getAvgStar());
+        }
+
+        @Override
+        public void writeTo(Response response) throws IOException {
+            response.object()
+                .field("name", name)
+                .field("type", type.toString())
+                .field("latitude", latitude)
+                .field("longitude", longitude)
+                .field("stars", stars)
+                .end();
+        }
+    }
+
+    /**
+     * What an answer shows of a student, read while the system is held.
+     */
+    private record StudentFields(String name, StudentType type, String country, String location)
+            implements JsonValue {
+
+        static StudentFields of(SystemManager system, StudentReadOnly student) {
+            return new StudentFields(system.getStudentName(student), system.getStudentType(student),
+                student.getCountry(), system.getStudentCurrentLocation(student).getName());
+        }
+
+        @Override
+        public void writeTo(Response response) throws IOException {
+            response.object()
+                .field("name", name)
+                .field("type", type.toString())
+                .field("country", country)
+                .field("location", location)
+                .end();
+        }
+    }
+
+    private static String text(Map<String, String> params, String name) throws BadParameterException {
+        String value = params.get(name);
+        if (value == null) {
+            throw new BadParameterException();
+        }
+        return value;
+    }
+
+    private static long number(Map<String, String> params, String name) throws BadParameterException {
+        try {
+            return Long.parseLong(text(params, name).trim());
+        } catch (NumberFormatException e) {
+            throw new BadParameterException();
+        }
+    }
+
+    private static int integer(Map<String, String> params, String name) throws BadParameterException {
+        long value = number(params, name);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new BadParameterException();
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads the parameters of the query string, and of the form-encoded body of a POST.
+     */
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new SepChainHashTable<>();
+        addParams(params, exchange.getRequestURI().getRawQuery());
+        if ("POST".equals(exchange.getRequestMethod())) {
+            try (InputStream body = exchange.getRequestBody()) {
+                addParams(params, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void addParams(Map<String, String> params, String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String error) throws IOException {
+        byte[] body = ("{\"error\":\"" + error + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Status of a failed operation, from the class of its exception.
+     */
+    private static int statusOf(Exception e) {
+        if (e instanceof BadParameterException
+                || e instanceof InvalidBoundsException
+                || e instanceof InvalidCapacityException
+                || e instanceof InvalidDiscountPriceException
+                || e instanceof InvalidLocationException
+                || e instanceof InvalidMenuException
+                || e instanceof InvalidMenuPriceException
+                || e instanceof InvalidOrderException
+                || e instanceof InvalidRoomPriceException
+                || e instanceof InvalidServiceTypeException
+                || e instanceof InvalidStarsException
+                || e instanceof InvalidStudentTypeException
+                || e instanceof InvalidTicketPriceException
+                // A student sent to a lodging: the service given cannot be gone to.
+                || e instanceof NotValidServiceException) {
+            return BAD_REQUEST;
+        }
+        if (e instanceof BoundsNotFoundException
+                || e instanceof LodgingNotFoundException
+                || e instanceof ServiceNotFoundException
+                || e instanceof StudentNotFoundException
+                || e instanceof NoServicesException
+                || e instanceof NoServicesOfThisTypeException
+                || e instanceof NoServicesWithTagException
+                || e instanceof NoStudentsFromTheCountryException
+                || e instanceof NoStudentsYetException
+                || e instanceof NoTypeServicesWithStarsException
+                || e instanceof NoVisitedLocationsException) {
+            return NOT_FOUND;
+        }
+        if (e instanceof NoAreaLoadedException
+                || e instanceof SystemBoundsNotDefinedException
+                || e instanceof BoundsAlreadyExistsException
+                || e instanceof ServiceAlreadyExistsException
+                || e instanceof StudentAlreadyExistsException
+                || e instanceof AlreadyStudentHomeException
+                || e instanceof AlreadyThereException
+                || e instanceof EatingIsFullException
+                || e instanceof LodgingIsFullException
+                || e instanceof StudentIsThriftyException
+                || e instanceof ServiceDoesNotControlEntryExitException) {
+            return CONFLICT;
+        }
+        return INTERNAL_ERROR;
+    }
+
+    /**
+     * JSON body of an answer, sent by {@link #finish()}: an object built in memory,
+     * or a list read by the operation and written as it is sent.
+     * An operation that fails, even after writing part of its answer, is
+     * answered with its error alone.
+     */
+    private static final class Response {
+
+        private final HttpExchange exchange;
+
+        // Where the JSON is written: the object built in memory, or the client
+        // while a list is sent.
+        private Writer body;
+        private CharArrayWriter object;
+
+        // Elements of a list answer, read while the system was held.
+        private List<JsonValue> elements;
+
+        // Whether the next value in the current array or object needs a comma before it.
+        private boolean separate;
+
+        private Exception failure;
+
+        Response(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.body = null;
+            this.object = null;
+            this.elements = null;
+            this.separate = false;
+            this.failure = null;
+        }
+
+        /**
+         * Answers with a list, reading now what it shows of each element, which is
+         * written once the system is released. The elements themselves may change
+         * after that, so they are not kept.
+         */
+        <E> void array(Iterator<? extends E> it, Function<? super E, ? extends JsonValue> read) {
+            elements = new DoublyLinkedList<>();
+            while (it.hasNext()) {
+                elements.addLast(read.apply(it.next()));
+            }
+        }
+
+        Response object() throws IOException {
+            if (body == null) {
+                object = new CharArrayWriter();
+                body = object;
+            }
+            if (separate) {
+                body.write(',');
+            }
+            body.write('{');
+            separate = false;
+            return this;
+        }
+
+        Response field(String name, String value) throws IOException {
+            name(name);
+            quote(value);
+            return this;
+        }
+
+        Response field(String name, long value) throws IOException {
+            name(name);
+            body.write(Long.toString(value));
+            return this;
+        }
+
+        Response field(String name, boolean value) throws IOException {
+            name(name);
+            body.write(Boolean.toString(value));
+            return this;
+        }
+
+        void end() throws IOException {
+            body.write('}');
+            separate = true;
+        }
+
+        void fail(Exception e) {
+            failure = e;
+        }
+
+        /**
+         * Sends the error of the failure, if the operation failed, or else the answer,
+         * in chunks. Called once the action is done, so that the client is not written
+         * to while the system is held; nothing can fail from then on but the connection.
+         */
+        void finish() throws IOException {
+            if (failure != null) {
+                String error = failure.getClass().getSimpleName();
+                if (error.endsWith("Exception")) {
+                    error = error.substring(0, error.length() - "Exception".length());
+                }
+                sendError(exchange, statusOf(failure), error);
+                return;
+            }
+            if (elements == null && object == null) {
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(OK, 0);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), BODY_BUFFER_SIZE)) {
+                if (elements == null) {
+                    object.writeTo(out);
+                    return;
+                }
+                body = out;
+                separate = false;
+                out.write('[');
+                Iterator<JsonValue> it = elements.iterator();
+                while (it.hasNext()) {
+                    it.next().writeTo(this);
+                }
+                out.write(']');
+            }
+        }
+
+        private void name(String name) throws IOException {
+            if (separate) {
+                body.write(',');
+            }
+            quote(name);
+            body.write(':');
+            separate = true;
+        }
+
+        private void quote(String s) throws IOException {
+            body.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"' -> body.write("\\\"");
+                    case '\\' -> body.write("\\\\");
+                    case '\n' -> body.write("\\n");
+                    case '\r' -> body.write("\\r");
+                    case '\t' -> body.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            body.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            body.write(c);
+                        }
+                    }
+                }
+            }
+            body.write('"');
+        }
+    }
+
+    /**
+     * Element of a list answer, which writes itself as a JSON value.
+     */
+    private interface JsonValue {
+        void writeTo(Response response) throws IOException;
+    }
+}
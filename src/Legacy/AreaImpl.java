@@ -0,0 +1,24 @@
+package Legacy;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * An area as versions that saved it with Java serialization wrote it.
+ * <p>
+ * The classes of this package only receive such files: each has the name,
+ * serial version and fields its counterpart had then, and nothing else.
+ */
+public class AreaImpl implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -8135841813110445848L;
+
+    public String name;
+    public long topLat;
+    public long bottomLat;
+    public long leftLong;
+    public long rightLong;
+    public StudentsCollectionImpl students;
+    public ServicesCollectionImpl services;
+}
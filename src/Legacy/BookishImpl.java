@@ -0,0 +1,12 @@
+package Legacy;
+
+import java.io.Serial;
+
+/**
+ * A bookish student of a legacy area, see {@link AreaImpl}.
+ */
+public class BookishImpl extends StudentAbs {
+
+    @Serial
+    private static final long serialVersionUID = -6285523486311609473L;
+}
@@ -0,0 +1,17 @@
+package Legacy;
+
+import dataStructures.TwoWayList;
+
+import java.io.Serial;
+
+/**
+ * An eating service of a legacy area, see {@link AreaImpl}.
+ */
+public class EatingImpl extends ServiceAbs {
+
+    @Serial
+    private static final long serialVersionUID = 6303414054998105949L;
+
+    public int seats;
+    public TwoWayList<StudentAbs> occupants;
+}
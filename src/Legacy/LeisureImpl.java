@@ -0,0 +1,15 @@
+package Legacy;
+
+import java.io.Serial;
+
+/**
+ * A leisure service of a legacy area, see {@link AreaImpl}.
+ * Its price is the ticket price after the discount; the full price was not saved.
+ */
+public class LeisureImpl extends ServiceAbs {
+
+    @Serial
+    private static final long serialVersionUID = -53334173892843631L;
+
+    public int discount;
+}
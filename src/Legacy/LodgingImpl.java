@@ -0,0 +1,17 @@
+package Legacy;
+
+import dataStructures.TwoWayList;
+
+import java.io.Serial;
+
+/**
+ * A lodging service of a legacy area, see {@link AreaImpl}.
+ */
+public class LodgingImpl extends ServiceAbs {
+
+    @Serial
+    private static final long serialVersionUID = 4206098452056736916L;
+
+    public int rooms;
+    public TwoWayList<StudentAbs> occupants;
+}
@@ -0,0 +1,12 @@
+package Legacy;
+
+import java.io.Serial;
+
+/**
+ * An outgoing student of a legacy area, see {@link AreaImpl}.
+ */
+public class OutgoingImpl extends StudentAbs {
+
+    @Serial
+    private static final long serialVersionUID = 7613591601982712517L;
+}
@@ -0,0 +1,27 @@
+package Legacy;
+
+import Services.Evaluation;
+import Services.ServiceType;
+import dataStructures.TwoWayList;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A service of a legacy area, see {@link AreaImpl}.
+ * Its evaluations start with the opening review every service was created with.
+ */
+public abstract class ServiceAbs implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 553442361099390287L;
+
+    public String name;
+    public long lat;
+    public long lon;
+    public int price;
+    public double avgStar;
+    public int value;
+    public ServiceType type;
+    public TwoWayList<Evaluation> evaluations;
+}
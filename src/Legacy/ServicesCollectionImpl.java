@@ -0,0 +1,21 @@
+package Legacy;
+
+import Services.ServiceType;
+import dataStructures.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * The services of a legacy area, see {@link AreaImpl}.
+ */
+public class ServicesCollectionImpl implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 3799051762411983819L;
+
+    public List<ServiceAbs> servicesByInsertion;
+    public Map<String, ServiceAbs> servicesByName;
+    public List<ServiceAbs>[] rankingByStars;
+    public Map<ServiceType, List<ServiceAbs>[]> servicesByTypeAndStars;
+}
@@ -0,0 +1,25 @@
+package Legacy;
+
+import Students.StudentType;
+import dataStructures.Map;
+import dataStructures.TwoWayList;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * A student of a legacy area, see {@link AreaImpl}.
+ */
+public abstract class StudentAbs implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -3303242484645183649L;
+
+    public String name;
+    public String country;
+    public LodgingImpl home;
+    public ServiceAbs current;
+    public TwoWayList<ServiceAbs> visitedServices;
+    public Map<ServiceAbs, Boolean> visitedServicesSet;
+    public StudentType type;
+}
@@ -0,0 +1,18 @@
+package Legacy;
+
+import dataStructures.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * The students of a legacy area, see {@link AreaImpl}.
+ */
+public class StudentsCollectionImpl implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4395128807018757114L;
+
+    public SortedMap<String, StudentAbs> studentsByName;
+    public Map<String, List<StudentAbs>> studentsByCountry;
+}
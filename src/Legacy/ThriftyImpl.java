@@ -0,0 +1,15 @@
+package Legacy;
+
+import java.io.Serial;
+
+/**
+ * A thrifty student of a legacy area, see {@link AreaImpl}.
+ */
+public class ThriftyImpl extends StudentAbs {
+
+    @Serial
+    private static final long serialVersionUID = -8052230612693971800L;
+
+    public EatingImpl cheapestEating;
+    public LodgingImpl cheapestLodging;
+}
@@ -1,65 +1,144 @@
 import Exceptions.*;
-import java.util.Scanner;
 import Services.*;
 import Students.*;
 import dataStructures.*;
 import SystemManager.*;
 
+import java.io.*;
+
 public class Main {
 
-    public static void main(String[] args) {
+    // Responses are written out before waiting for more input, and when the program ends.
+    private static final ResponseWriter OUT = new ResponseWriter(System.out);
+
+    /**
+     * Reads commands from the standard input or, if a file is given, runs the
+     * commands in the file as a script.
+     *
+     * @param args The script file, if any.
+     */
+    public static void main(String[] args) throws IOException {
         SystemManager manager = new SystemManagerImpl();
-        Scanner scanner = new Scanner(System.in);
-        String command;
 
-        do {
-            command = scanner.next();
-            Commands cmd = Commands.fromString(command);
+        try {
+            if (args.length == 0) {
+                run(new CommandReader(System.in, OUT), manager);
+            } else {
+                try (InputStream script = new FileInputStream(args[0])) {
+                    runScript(new CommandReader(script, OUT), manager);
+                }
+            }
+        } finally {
+            OUT.flush();
+        }
+    }
 
-            boolean hasArea = manager.hasAreaLoaded();
+    private static void run(CommandReader scanner, SystemManager manager) {
+        Commands cmd;
 
-            if (cmd == null && hasArea) {
-                System.out.println(Message.UNKNOWN_COMMAND);
-                continue;
-            }
+        do {
+            cmd = Commands.fromString(scanner.next());
 
-            if (!hasArea) {
-                switch (cmd) {
-                    case EXIT -> handleExit(manager);
-                    case BOUNDS -> handleBounds(scanner, manager);
-                    case LOAD -> handleLoad(scanner, manager);
-                    case HELP -> handleHelp();
-                    case null -> {}
-                    default -> System.out.println(Message.SYSTEM_BOUNDS_NOT_DEFINED);
-                }
+            Query query = readQuery(cmd, scanner, manager);
+            if (query != null) {
+                query.answer(OUT);
             } else {
-                switch (cmd) {
-                    case EXIT -> handleExit(manager);
-                    case BOUNDS -> handleBounds(scanner, manager);
-                    case SAVE -> handleSave(manager);
-                    case LOAD -> handleLoad(scanner, manager);
-                    case SERVICE -> handleService(scanner, manager);
-                    case SERVICES -> handleServices(manager);
-                    case STUDENT -> handleStudent(scanner, manager);
-                    case STUDENTS -> handleStudents(scanner, manager);
-                    case LEAVE -> handleLeave(manager, scanner);
-                    case GO -> handleGo(manager, scanner);
-                    case MOVE -> handleMove(scanner, manager);
-                    case USERS -> handleUsers(scanner, manager);
-                    case WHERE -> handleWhere(scanner, manager);
-                    case VISITED -> handleVisited(scanner, manager);
-                    case STAR -> handleStar(scanner, manager);
-                    case RANKING -> handleRanking(manager);
-                    case RANKED -> handleRanked(scanner, manager);
-                    case TAG -> handleTag(scanner, manager);
-                    case FIND -> handleFind(scanner, manager);
-                    case HELP -> handleHelp();
-                    default -> System.out.println(Message.UNKNOWN_COMMAND);
-                }
+                execute(cmd, scanner, manager, OUT);
             }
 
-        } while (!command.equalsIgnoreCase("exit"));
+        } while (cmd != Commands.EXIT);
+
+    }
+
+    /**
+     * Runs the commands of a script. The queries between two commands that change
+     * the system are answered in parallel, and their answers printed in order, so
+     * the output is the same as when the commands are typed one by one.
+     */
+    private static void runScript(CommandReader scanner, SystemManager manager) {
+        QueryPool queries = new QueryPool(OUT);
+        Commands cmd;
+
+        try {
+            do {
+                cmd = Commands.fromString(scanner.next());
+
+                Query query = readQuery(cmd, scanner, manager);
+                if (query != null) {
+                    queries.submit(query);
+                } else {
+                    queries.awaitAnswers();
+                    execute(cmd, scanner, manager, OUT);
+                }
+
+            } while (cmd != Commands.EXIT);
+        } finally {
+            // Queries read before a failure are answered before it, and fail before it.
+            queries.awaitAnswers();
+        }
+    }
+
+    /**
+     * Reads the arguments of a command that does not change the system.
+     *
+     * @return The query to answer, or null if the command may change the
+     *         system, in which case its arguments are left unread.
+     */
+    static Query readQuery(Commands cmd, CommandReader scanner, SystemManager manager) {
+        if (cmd == Commands.HELP) {
+            return Main::handleHelp;
+        }
+        if (cmd == null || !manager.hasAreaLoaded()) {
+            return null;
+        }
+        return switch (cmd) {
+            case SERVICES -> out -> handleServices(manager, out);
+            case STUDENTS -> handleStudents(scanner, manager);
+            case USERS -> handleUsers(scanner, manager);
+            case WHERE -> handleWhere(scanner, manager);
+            case VISITED -> handleVisited(scanner, manager);
+            case RANKING -> out -> handleRanking(manager, out);
+            case RANKED -> handleRanked(scanner, manager);
+            case TAG -> handleTag(scanner, manager);
+            case FIND -> handleFind(scanner, manager);
+            default -> null;
+        };
+    }
+
+    /**
+     * Runs a command that is not a query, see {@link #readQuery}.
+     */
+    static void execute(Commands cmd, CommandReader scanner, SystemManager manager, ResponseWriter out) {
+        boolean hasArea = manager.hasAreaLoaded();
+
+        if (cmd == null && hasArea) {
+            Message.UNKNOWN_COMMAND.print(out);
+            return;
+        }
 
+        if (!hasArea) {
+            switch (cmd) {
+                case EXIT -> handleExit(manager, out);
+                case BOUNDS -> handleBounds(scanner, manager, out);
+                case LOAD -> handleLoad(scanner, manager, out);
+                case null -> {}
+                default -> Message.SYSTEM_BOUNDS_NOT_DEFINED.print(out);
+            }
+        } else {
+            switch (cmd) {
+                case EXIT -> handleExit(manager, out);
+                case BOUNDS -> handleBounds(scanner, manager, out);
+                case SAVE -> handleSave(manager, out);
+                case LOAD -> handleLoad(scanner, manager, out);
+                case SERVICE -> handleService(scanner, manager, out);
+                case STUDENT -> handleStudent(scanner, manager, out);
+                case LEAVE -> handleLeave(manager, scanner, out);
+                case GO -> handleGo(manager, scanner, out);
+                case MOVE -> handleMove(scanner, manager, out);
+                case STAR -> handleStar(scanner, manager, out);
+                default -> Message.UNKNOWN_COMMAND.print(out);
+            }
+        }
     }
 
     private enum Message {
@@ -113,6 +192,8 @@ public class Main {
         STUDENT_ALREADY_EXISTS("%s already exists!%n"),
         NO_STUDENTS("No students yet!"),
         NO_STUDENTS_FROM("No students from %s!%n"),
+        NO_STUDENTS_AFTER("No students after the first %d!%n"),
+        INVALID_PAGE_LIMIT("Invalid page limit!"),
         STUDENT_LEFT("%s has left."),
         STUDENT_NOT_FOUND("%s does not exist!%n"),
 
@@ -145,8 +226,12 @@ public class Main {
 
         private final String text;
 
+        // Pieces of the text around its %s and %d conversions, with %n already expanded.
+        private final String[] literals;
+
         Message(String text) {
             this.text = text;
+            this.literals = compile(text);
         }
 
         @Override
@@ -154,31 +239,66 @@ public class Main {
             return text;
         }
 
-        public String format(Object... args) {
-            return String.format(this.text, args);
+        public void print(ResponseWriter out) {
+            out.println(this.text);
+        }
+
+        public void printf(ResponseWriter out, Object... args) {
+            StringBuilder buffer = out.buffer();
+            buffer.append(literals[0]);
+            for (int i = 1; i < literals.length; i++) {
+                buffer.append(args[i - 1]).append(literals[i]);
+            }
+            out.flushIfFull();
         }
 
-        public void print() {
-            System.out.println(this.text);
+        public void println(ResponseWriter out, Object... args) {
+            printf(out, args);
+            out.println();
         }
 
-        public void printf(Object... args) {
-            System.out.printf(this.text, args);
+        /**
+         * Splits a text at its conversions. The texts only use %s and %d, both of
+         * which print the argument as String.valueOf does, and %n.
+         */
+        private static String[] compile(String text) {
+            String[] literals = new String[text.split("%[sd]", -1).length];
+            StringBuilder literal = new StringBuilder();
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c != '%') {
+                    literal.append(c);
+                } else if (text.charAt(++i) == 'n') {
+                    literal.append(System.lineSeparator());
+                } else {
+                    literals[count++] = literal.toString();
+                    literal.setLength(0);
+                }
+            }
+            literals[count] = literal.toString();
+            return literals;
         }
     }
 
-    private static void handleExit(SystemManager manager) {
-        try {
-            manager.saveArea();
-        } catch (Exception ignored) {}
-        Message.EXIT.print();
+    private static void handleExit(SystemManager manager, ResponseWriter out) {
+        manager.closeArea();
+        Message.EXIT.print(out);
     }
 
-    private static void handleHelp() {
-        Message.HELP_TEXT.print();
+    /**
+     * Ends a session of the {@link CommandServer}. Unlike exit in the console,
+     * it leaves the area loaded for the other sessions.
+     */
+    static void handleSessionExit(ResponseWriter out) {
+        Message.EXIT.print(out);
     }
 
-    private static void handleBounds(Scanner sc, SystemManager manager) {
+    private static void handleHelp(ResponseWriter out) {
+        Message.HELP_TEXT.print(out);
+    }
+
+    private static void handleBounds(CommandReader sc, SystemManager manager, ResponseWriter out) {
         long topLat = sc.nextLong();
         long leftLong = sc.nextLong();
         long bottomLat = sc.nextLong();
@@ -187,37 +307,37 @@ public class Main {
 
         try {
             manager.createArea(name, topLat, leftLong, bottomLat, rightLong);
-            System.out.println(Message.AREA_CREATED.format(name));
+            Message.AREA_CREATED.println(out, name);
         } catch (InvalidBoundsException e) {
-            Message.INVALID_BOUNDS.print();
+            Message.INVALID_BOUNDS.print(out);
         } catch (BoundsAlreadyExistsException e) {
-            Message.BOUNDS_ALREADY_EXISTS.print();
+            Message.BOUNDS_ALREADY_EXISTS.print(out);
         }
     }
 
-    private static void handleSave(SystemManager manager) {
+    private static void handleSave(SystemManager manager, ResponseWriter out) {
         try {
             manager.saveArea();
-            System.out.println(Message.AREA_SAVED.format(manager.getCurrentArea().getName()));
+            Message.AREA_SAVED.println(out, manager.getCurrentAreaName());
         } catch (NoAreaLoadedException e) {
-            Message.SYSTEM_BOUNDS_NOT_DEFINED.print();
+            Message.SYSTEM_BOUNDS_NOT_DEFINED.print(out);
         }
     }
 
-    private static void handleLoad(Scanner sc, SystemManager manager) {
+    private static void handleLoad(CommandReader sc, SystemManager manager, ResponseWriter out) {
         String name = sc.nextLine().trim();
 
         try {
             manager.loadArea(name);
-            System.out.println(Message.AREA_LOADED.format(manager.getCurrentArea().getName()));
+            Message.AREA_LOADED.println(out, manager.getCurrentAreaName());
         } catch (NoAreaLoadedException e) {
-            Message.SYSTEM_BOUNDS_NOT_DEFINED.print();
+            Message.SYSTEM_BOUNDS_NOT_DEFINED.print(out);
         } catch (BoundsNotFoundException e) {
-            System.out.println(Message.BOUNDS_NOT_FOUND.format(name));
+            Message.BOUNDS_NOT_FOUND.println(out, name);
         }
     }
 
-    private static void handleService(Scanner sc, SystemManager manager) {
+    private static void handleService(CommandReader sc, SystemManager manager, ResponseWriter out) {
         String typeStr = sc.next();
         ServiceType type = ServiceType.fromString(typeStr);
         long lat = sc.nextLong();
@@ -228,45 +348,45 @@ public class Main {
 
         try {
             manager.addService(type, name, lat, lon, price, value);
-            System.out.println(Message.SERVICE_ADDED.format(type.toString(), name));
+            Message.SERVICE_ADDED.println(out, type.toString(), name);
         } catch (InvalidServiceTypeException e) {
-            Message.INVALID_SERVICE_TYPE.print();
+            Message.INVALID_SERVICE_TYPE.print(out);
         } catch (InvalidLocationException e) {
-            Message.INVALID_LOCATION.print();
+            Message.INVALID_LOCATION.print(out);
         } catch (InvalidBoundsException e) {
-            Message.INVALID_BOUNDS.print();
+            Message.INVALID_BOUNDS.print(out);
         } catch (SystemBoundsNotDefinedException e) {
-            Message.SYSTEM_BOUNDS_NOT_DEFINED.print();
+            Message.SYSTEM_BOUNDS_NOT_DEFINED.print(out);
         } catch (InvalidMenuPriceException e) {
-            Message.INVALID_MENU_PRICE.print();
+            Message.INVALID_MENU_PRICE.print(out);
         } catch (InvalidRoomPriceException e) {
-            Message.INVALID_ROOM_PRICE.print();
+            Message.INVALID_ROOM_PRICE.print(out);
         } catch (InvalidTicketPriceException e) {
-            Message.INVALID_TICKET_PRICE.print();
+            Message.INVALID_TICKET_PRICE.print(out);
         } catch (InvalidDiscountPriceException e) {
-            Message.INVALID_DISCOUNT_PRICE.print();
+            Message.INVALID_DISCOUNT_PRICE.print(out);
         } catch (InvalidCapacityException e) {
-            Message.INVALID_CAPACITY.print();
+            Message.INVALID_CAPACITY.print(out);
         } catch (ServiceAlreadyExistsException e) {
-            System.out.println(Message.SERVICE_ALREADY_EXISTS.format(manager.getServiceByName(name).getName()));
+            Message.SERVICE_ALREADY_EXISTS.println(out, manager.getServiceByName(name).getName());
         }
     }
 
-    private static void handleServices(SystemManager manager) {
+    private static void handleServices(SystemManager manager, ResponseWriter out) {
         Iterator<? extends ServiceReadOnly> iterator;
         try {
             iterator = manager.listServices();
         } catch (NoServicesException e) {
-            Message.NO_SERVICES.print();
+            Message.NO_SERVICES.print(out);
             return;
         }
         while (iterator.hasNext()) {
             ServiceReadOnly service = iterator.next();
-            System.out.println(manager.getServiceName(service) + ": " + manager.getServiceType(service) + " " + "(" + manager.getServiceLatitude(service) + ", " + manager.getServiceLongitude(service) + ").");
+            out.print(manager.getServiceName(service)).print(": ").print(manager.getServiceType(service)).print(" (").print(manager.getServiceLatitude(service)).print(", ").print(manager.getServiceLongitude(service)).println(").");
         }
     }
 
-    private static void handleStudent(Scanner sc, SystemManager manager) {
+    private static void handleStudent(CommandReader sc, SystemManager manager, ResponseWriter out) {
         String typeStr = sc.nextLine().trim();
         StudentType type = StudentType.fromString(typeStr);
         String name = sc.nextLine().trim();
@@ -275,48 +395,75 @@ public class Main {
         try {
 
             manager.addStudent(type, name, country, lodgingName);
-            System.out.println(Message.STUDENT_ADDED.format(name));
+            Message.STUDENT_ADDED.println(out, name);
         } catch (SystemBoundsNotDefinedException e) {
-            Message.SYSTEM_BOUNDS_NOT_DEFINED.print();
+            Message.SYSTEM_BOUNDS_NOT_DEFINED.print(out);
         } catch (InvalidStudentTypeException e) {
-            Message.INVALID_STUDENT_TYPE.print();
+            Message.INVALID_STUDENT_TYPE.print(out);
         } catch (LodgingNotFoundException e) {
-            Message.LODGING_NOT_FOUND.printf(lodgingName);
+            Message.LODGING_NOT_FOUND.printf(out, lodgingName);
         } catch (LodgingIsFullException e) {
-            Message.LODGING_IS_FULL.printf(lodgingName);
+            Message.LODGING_IS_FULL.printf(out, lodgingName);
         } catch (StudentAlreadyExistsException e) {
             StudentReadOnly student = manager.getStudentByName(name);
-            Message.STUDENT_ALREADY_EXISTS.printf(manager.getStudentName(student));
+            Message.STUDENT_ALREADY_EXISTS.printf(out, manager.getStudentName(student));
         }
     }
 
-    private static void handleStudents(Scanner sc, SystemManager manager) {
+    private static Query handleStudents(CommandReader sc, SystemManager manager) {
         String filter = sc.nextLine().trim();
-        Iterator<? extends StudentReadOnly> iterator = manager.listStudents(filter);
-        if (!iterator.hasNext() && filter.equals("all")) {
-            Message.NO_STUDENTS.print();
-        } else if (!iterator.hasNext()) {
-            Message.NO_STUDENTS_FROM.printf(filter);
-        } else {
-            while (iterator.hasNext()) {
-                StudentReadOnly student = iterator.next();
-                System.out.println(manager.getStudentName(student) + ": " + manager.getStudentType(student).toString() + " at " + manager.getStudentCurrentLocation(student).getName() + ".");
+        if (filter.matches("\\d{1,9}\\s+\\d{1,9}")) {
+            String[] page = filter.split("\\s+");
+            return handleStudentsPage(Integer.parseInt(page[0]), Integer.parseInt(page[1]), manager);
+        }
+        return out -> {
+            Iterator<? extends StudentReadOnly> iterator = manager.listStudents(filter);
+            if (!iterator.hasNext() && filter.equals("all")) {
+                Message.NO_STUDENTS.print(out);
+            } else if (!iterator.hasNext()) {
+                Message.NO_STUDENTS_FROM.printf(out, filter);
+            } else {
+                printStudents(iterator, manager, out);
             }
+        };
+    }
+
+    // Lists the students from position offset, without going through those before it.
+    private static Query handleStudentsPage(int offset, int limit, SystemManager manager) {
+        if (limit == 0) {
+            return Message.INVALID_PAGE_LIMIT::print;
         }
+        return out -> {
+            Iterator<? extends StudentReadOnly> iterator = manager.listStudents(offset, limit);
+            if (iterator.hasNext()) {
+                printStudents(iterator, manager, out);
+            } else if (!manager.listStudents(0, 1).hasNext()) {
+                Message.NO_STUDENTS.print(out);
+            } else {
+                Message.NO_STUDENTS_AFTER.printf(out, offset);
+            }
+        };
     }
 
-    private static void handleLeave(SystemManager manager, Scanner sc) {
+    private static void printStudents(Iterator<? extends StudentReadOnly> iterator, SystemManager manager, ResponseWriter out) {
+        while (iterator.hasNext()) {
+            StudentReadOnly student = iterator.next();
+            out.print(manager.getStudentName(student)).print(": ").print(manager.getStudentType(student).toString()).print(" at ").print(manager.getStudentCurrentLocation(student).getName()).println(".");
+        }
+    }
+
+    private static void handleLeave(SystemManager manager, CommandReader sc, ResponseWriter out) {
         String studentName = sc.nextLine().trim();
         StudentReadOnly student = manager.getStudentByName(studentName);
         try {
             manager.removeStudent(studentName);
-            System.out.println(Message.STUDENT_LEFT.format(student.getName()));
+            Message.STUDENT_LEFT.println(out, student.getName());
         } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
+            Message.STUDENT_NOT_FOUND.printf(out, studentName);
         }
     }
 
-    private static void handleGo(SystemManager manager, Scanner sc) {
+    private static void handleGo(SystemManager manager, CommandReader sc, ResponseWriter out) {
         String studentName = sc.nextLine().trim();
         String serviceName = sc.nextLine().trim();
         StudentReadOnly student = manager.getStudentByName(studentName);
@@ -324,193 +471,203 @@ public class Main {
         try {
             manager.goToLocation(studentName, serviceName);
             if (manager.isStudentDistracted(studentName, serviceName)) {
-                Message.STUDENT_GO_DISTRACTED.printf(manager.getStudentName(student), manager.getServiceName(service), manager.getStudentName(student));
+                Message.STUDENT_GO_DISTRACTED.printf(out, manager.getStudentName(student), manager.getServiceName(service), manager.getStudentName(student));
             } else {
-                Message.STUDENT_GO_OK.printf(manager.getStudentName(student), manager.getServiceName(service));
+                Message.STUDENT_GO_OK.printf(out, manager.getStudentName(student), manager.getServiceName(service));
             }
         } catch (ServiceNotFoundException e) {
-            Message.UNKNOWN_SERVICE.printf(serviceName);
+            Message.UNKNOWN_SERVICE.printf(out, serviceName);
         } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
+            Message.STUDENT_NOT_FOUND.printf(out, studentName);
         } catch (AlreadyThereException e) {
-            Message.ALREADY_THERE.print();
+            Message.ALREADY_THERE.print(out);
         } catch (EatingIsFullException e) {
-            Message.EATING_FULL.printf(manager.getServiceName(service));
+            Message.EATING_FULL.printf(out, manager.getServiceName(service));
         } catch (NotValidServiceException e) {
-            Message.NOT_VALID_SERVICE.printf(manager.getServiceName(service));
+            Message.NOT_VALID_SERVICE.printf(out, manager.getServiceName(service));
         }
     }
 
-    private static void handleMove(Scanner sc, SystemManager manager) {
+    private static void handleMove(CommandReader sc, SystemManager manager, ResponseWriter out) {
         String studentName = sc.nextLine().trim();
         String lodgingName = sc.nextLine().trim();
         ServiceReadOnly service = manager.getServiceByName(lodgingName);
         try {
             StudentReadOnly student = manager.getStudentByName(studentName);
             manager.moveStudentHome(studentName, lodgingName);
-            Message.STUDENT_MOVE_OK.printf(manager.getServiceName(service), manager.getStudentName(student), student.getName());
+            Message.STUDENT_MOVE_OK.printf(out, manager.getServiceName(service), manager.getStudentName(student), student.getName());
         } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
+            Message.STUDENT_NOT_FOUND.printf(out, studentName);
         } catch (LodgingNotFoundException e) {
-            Message.LODGING_NOT_FOUND.printf(lodgingName);
+            Message.LODGING_NOT_FOUND.printf(out, lodgingName);
         } catch (LodgingIsFullException e) {
-            Message.LODGING_IS_FULL.printf(lodgingName);
+            Message.LODGING_IS_FULL.printf(out, lodgingName);
         } catch (AlreadyStudentHomeException e) {
             StudentReadOnly student = manager.getStudentByName(studentName);
-            Message.ALREADY_STUDENT_HOME.printf(manager.getStudentName(student));
+            Message.ALREADY_STUDENT_HOME.printf(out, manager.getStudentName(student));
         } catch (StudentIsThriftyException e) {
-            Message.MOVE_NOT_ACCEPTABLE.printf(studentName);
+            Message.MOVE_NOT_ACCEPTABLE.printf(out, studentName);
         }
     }
 
-    private static void handleUsers(Scanner sc, SystemManager manager) {
+    private static Query handleUsers(CommandReader sc, SystemManager manager) {
         String order = sc.next();
         String serviceName = sc.nextLine().trim();
-        ServiceReadOnly service = manager.getServiceByName(serviceName);
-
-        TwoWayIterator<? extends StudentReadOnly> it;
-        try {
-            it = manager.listUsersInService(order, serviceName);
-            boolean printed = false;
-
-            if (">".equals(order)) {
-                while (it.hasNext()) {
-                    StudentReadOnly student = it.next();
-                    System.out.println(manager.getStudentName(student) + ": " + manager.getStudentType(student).toString());
-                    printed = true;
+        return out -> {
+            ServiceReadOnly service = manager.getServiceByName(serviceName);
+
+            TwoWayIterator<? extends StudentReadOnly> it;
+            try {
+                it = manager.listUsersInService(order, serviceName);
+                boolean printed = false;
+
+                if (">".equals(order)) {
+                    while (it.hasNext()) {
+                        StudentReadOnly student = it.next();
+                        out.print(manager.getStudentName(student)).print(": ").println(manager.getStudentType(student).toString());
+                        printed = true;
+                    }
+                } else { // "<"
+                    while (it.hasPrevious()) {
+                        StudentReadOnly student = it.previous();
+                        out.print(manager.getStudentName(student)).print(": ").println(manager.getStudentType(student).toString());
+                        printed = true;
+                    }
                 }
-            } else { // "<"
-                while (it.hasPrevious()) {
-                    StudentReadOnly student = it.previous();
-                    System.out.println(manager.getStudentName(student) + ": " + manager.getStudentType(student).toString());
-                    printed = true;
+                if (!printed) {
+                    Message.NO_STUDENTS_ON_SERVICE.printf(out, manager.getServiceName(service));
                 }
+            } catch (InvalidOrderException e) {
+                Message.INVALID_ORDER.print(out);
+            } catch (ServiceNotFoundException e) {
+                Message.SERVICE_NOT_FOUND.printf(out, serviceName);
+            } catch (ServiceDoesNotControlEntryExitException e) {
+                Message.SERVICE_NO_ENTRY_EXIT.printf(out, manager.getServiceName(service));
             }
-            if (!printed) {
-                Message.NO_STUDENTS_ON_SERVICE.printf(manager.getServiceName(service));
-            }
-        } catch (InvalidOrderException e) {
-            Message.INVALID_ORDER.print();
-        } catch (ServiceNotFoundException e) {
-            Message.SERVICE_NOT_FOUND.printf(serviceName);
-        } catch (ServiceDoesNotControlEntryExitException e) {
-            Message.SERVICE_NO_ENTRY_EXIT.printf(manager.getServiceName(service));
-        }
+        };
     }
 
-    private static void handleWhere(Scanner sc, SystemManager manager) {
+    private static Query handleWhere(CommandReader sc, SystemManager manager) {
         String studentName = sc.nextLine().trim();
-        try {
-            ServiceReadOnly service = manager.whereIsStudent(studentName);
-            StudentReadOnly student = manager.getStudentByName(studentName);
-            Message.STUDENT_LOCATION.printf(manager.getStudentName(student), service.getName(), service.getType(), service.getLatitude(), service.getLongitude());
-        } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
-        }
-
+        return out -> {
+            try {
+                ServiceReadOnly service = manager.whereIsStudent(studentName);
+                StudentReadOnly student = manager.getStudentByName(studentName);
+                Message.STUDENT_LOCATION.printf(out, manager.getStudentName(student), service.getName(), service.getType(), service.getLatitude(), service.getLongitude());
+            } catch (StudentNotFoundException e) {
+                Message.STUDENT_NOT_FOUND.printf(out, studentName);
+            }
+        };
     }
 
-    private static void handleVisited(Scanner sc, SystemManager manager) {
+    private static Query handleVisited(CommandReader sc, SystemManager manager) {
         String studentName = sc.nextLine().trim();
-        StudentReadOnly student = manager.getStudentByName(studentName);
-        Iterator<? extends ServiceReadOnly> it;
-        try {
-            it = manager.listVisitedLocations(studentName);
-            while (it.hasNext()) {
-                ServiceReadOnly service = it.next();
-                System.out.println(service.getName());
+        return out -> {
+            StudentReadOnly student = manager.getStudentByName(studentName);
+            Iterator<? extends ServiceReadOnly> it;
+            try {
+                it = manager.listVisitedLocations(studentName);
+                while (it.hasNext()) {
+                    ServiceReadOnly service = it.next();
+                    out.println(service.getName());
+                }
+            } catch (StudentNotFoundException e) {
+                Message.STUDENT_NOT_FOUND.printf(out, studentName);
+            } catch (StudentIsThriftyException e) {
+                Message.STUDENT_IS_THRIFTY.printf(out, manager.getStudentName(student));
+            } catch (NoVisitedLocationsException e) {
+                Message.NO_VISITED_LOCATIONS.printf(out, manager.getStudentName(student));
             }
-        } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
-        } catch (StudentIsThriftyException e) {
-            Message.STUDENT_IS_THRIFTY.printf(manager.getStudentName(student));
-        } catch (NoVisitedLocationsException e) {
-            Message.NO_VISITED_LOCATIONS.printf(manager.getStudentName(student));
-        }
+        };
     }
 
-    static void handleStar(Scanner sc, SystemManager manager) {
+    static void handleStar(CommandReader sc, SystemManager manager, ResponseWriter out) {
         int stars = sc.nextInt();
         String serviceName = sc.nextLine().trim();
         String description = sc.nextLine().trim();
         try {
             manager.addReviewToService(serviceName, stars, description);
-            Message.EVALUATION_REGISTERED.print();
+            Message.EVALUATION_REGISTERED.print(out);
         } catch (ServiceNotFoundException e) {
-            Message.SERVICE_NOT_FOUND.printf(serviceName);
+            Message.SERVICE_NOT_FOUND.printf(out, serviceName);
         } catch (InvalidStarsException e) {
-            Message.INVALID_EVALUATION.print();
+            Message.INVALID_EVALUATION.print(out);
         }
     }
 
-    private static void handleRanking(SystemManager manager) {
+    private static void handleRanking(SystemManager manager, ResponseWriter out) {
         Iterator<? extends ServiceReadOnly> it = manager.getRankedServices();
         if (!it.hasNext()) {
-            Message.NO_SERVICES_IN_SYSTEM.print();
+            Message.NO_SERVICES_IN_SYSTEM.print(out);
         } else {
-            Message.RANKING_HEADER.print();
+            Message.RANKING_HEADER.print(out);
             while (it.hasNext()) {
                 ServiceReadOnly service = it.next();
-                System.out.printf("%s: %d%n", service.getName(), service.getAvgStar());
+                out.print(service.getName()).print(": ").print(service.getAvgStar()).println();
             }
         }
     }
 
-    private static void handleRanked(Scanner sc, SystemManager manager) {
+    private static Query handleRanked(CommandReader sc, SystemManager manager) {
         String typeStr = sc.next();
         ServiceType type = ServiceType.fromString(typeStr);
         int stars = sc.nextInt();
         String studentName = sc.nextLine().trim();
-        Iterator<? extends ServiceReadOnly> it;
-        try {
+        return out -> {
+            Iterator<? extends ServiceReadOnly> it;
+            try {
 
-            it = manager.getRankedServicesByTypeAndStars(type, stars, studentName);
-            Message.RANKED_HEADER.printf(type.toString(), stars);
-            while (it.hasNext()) {
-                ServiceReadOnly service = it.next();
-                System.out.printf("%s%n", service.getName());
+                it = manager.getRankedServicesByTypeAndStars(type, stars, studentName);
+                Message.RANKED_HEADER.printf(out, type.toString(), stars);
+                while (it.hasNext()) {
+                    ServiceReadOnly service = it.next();
+                    out.println(service.getName());
+                }
+            } catch (InvalidServiceTypeException e) {
+                Message.INVALID_SERVICE_TYPE.print(out);
+            } catch (NoServicesOfThisTypeException e) {
+                Message.NO_SERVICES_OF_TYPE.printf(out, type.toString());
+            } catch (InvalidStarsException e) {
+                Message.INVALID_STARS.print(out);
+            } catch (StudentNotFoundException e) {
+                Message.STUDENT_NOT_FOUND.printf(out, studentName);
+            } catch (NoTypeServicesWithStarsException e) {
+                Message.NO_SERVICES_WITH_STARS.printf(out, type.toString());
             }
-        } catch (InvalidServiceTypeException e) {
-            Message.INVALID_SERVICE_TYPE.print();
-        } catch (NoServicesOfThisTypeException e) {
-            Message.NO_SERVICES_OF_TYPE.printf(type.toString());
-        } catch (InvalidStarsException e) {
-            Message.INVALID_STARS.print();
-        } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
-        } catch (NoTypeServicesWithStarsException e) {
-            Message.NO_SERVICES_WITH_STARS.printf(type.toString());
-        }
+        };
     }
 
-    private static void handleTag(Scanner sc, SystemManager manager) {
+    private static Query handleTag(CommandReader sc, SystemManager manager) {
         String tag = sc.nextLine().toLowerCase().trim();
-        Iterator<? extends ServiceReadOnly> it = manager.listServicesWithTag(tag);
-        if (!it.hasNext()) {
-            Message.NO_SERVICES_WITH_TAG.print();
-        } else {
-            while (it.hasNext()) {
-                ServiceReadOnly service = it.next();
-                System.out.println(manager.getServiceType(service) + " " + manager.getServiceName(service));
+        return out -> {
+            Iterator<? extends ServiceReadOnly> it = manager.listServicesWithTag(tag);
+            if (!it.hasNext()) {
+                Message.NO_SERVICES_WITH_TAG.print(out);
+            } else {
+                while (it.hasNext()) {
+                    ServiceReadOnly service = it.next();
+                    out.print(manager.getServiceType(service)).print(" ").println(manager.getServiceName(service));
+                }
             }
-        }
+        };
     }
 
-    private static void handleFind(Scanner sc, SystemManager manager) {
+    private static Query handleFind(CommandReader sc, SystemManager manager) {
         String studentName = sc.nextLine().trim();
         String typeStr = sc.nextLine().trim();
         ServiceType type = ServiceType.fromString(typeStr);
-
-        try {
-
-            ServiceReadOnly service = manager.findRelevantServiceForStudent(studentName, type);
-            System.out.println(manager.getServiceName(service));
-        } catch (StudentNotFoundException e) {
-            Message.STUDENT_NOT_FOUND.printf(studentName);
-        } catch (InvalidServiceTypeException e) {
-            Message.INVALID_SERVICE_TYPE.print();
-        } catch (NoServicesOfThisTypeException e) {
-            Message.NO_SERVICES_OF_TYPE.printf(type.toString());
-        }
+        return out -> {
+            try {
+
+                ServiceReadOnly service = manager.findRelevantServiceForStudent(studentName, type);
+                out.println(manager.getServiceName(service));
+            } catch (StudentNotFoundException e) {
+                Message.STUDENT_NOT_FOUND.printf(out, studentName);
+            } catch (InvalidServiceTypeException e) {
+                Message.INVALID_SERVICE_TYPE.print(out);
+            } catch (NoServicesOfThisTypeException e) {
+                Message.NO_SERVICES_OF_TYPE.printf(out, type.toString());
+            }
+        };
     }
 }
\ No newline at end of file
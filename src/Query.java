@@ -0,0 +1,14 @@
+/**
+ * A command that does not change the system, with its arguments already read.
+ * Queries only read the system, so several of them may be answered at once.
+ */
+@FunctionalInterface
+public interface Query {
+
+    /**
+     * Prints the answer to the query.
+     *
+     * @param out The writer the answer is printed to.
+     */
+    void answer(ResponseWriter out);
+}
@@ -0,0 +1,133 @@
+import dataStructures.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Answers queries on a pool of worker threads, printing the answers in the order
+ * the queries were submitted, exactly as if they had been answered one by one.
+ * <p>
+ * Queries are handed to the workers in groups, so that short queries do not pay
+ * for a thread hand-off each. The caller must not change the system between
+ * submitting a query and {@link #awaitAnswers()}. The worker threads end by
+ * themselves shortly after they become idle.
+ */
+public final class QueryPool {
+
+    // Queries answered by a worker in one go.
+    private static final int QUERIES_PER_TASK = 16;
+
+    private static final long IDLE_MILLIS = 100;
+
+    /**
+     * Queries answered together, and their answers.
+     */
+    private static final class Task implements Runnable {
+        private final Query[] queries = new Query[QUERIES_PER_TASK];
+        private int size = 0;
+        private final ResponseWriter answers = new ResponseWriter();
+
+        // Failure of the query that stopped the task, if any.
+        private Throwable failure;
+
+        private Future<?> done;
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < size; i++) {
+                    queries[i].answer(answers);
+                    queries[i] = null;
+                }
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+        }
+    }
+
+    private final ResponseWriter out;
+    private final ThreadPoolExecutor executor;
+    private final Queue<Task> submitted;
+    private Task filling;
+
+    /**
+     * Creates a pool with one worker per available processor.
+     *
+     * @param out The writer the answers are printed to.
+     */
+    public QueryPool(ResponseWriter out) {
+        this(out, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param out The writer the answers are printed to.
+     * @param workers The number of worker threads.
+     */
+    public QueryPool(ResponseWriter out, int workers) {
+        this.out = out;
+        this.executor = new ThreadPoolExecutor(workers, workers, IDLE_MILLIS, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), task -> new Thread(task, "query-worker"));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.submitted = new QueueInList<>();
+        this.filling = new Task();
+    }
+
+    /**
+     * Submits a query to be answered in the background. Answers of earlier
+     * queries that are ready are printed.
+     *
+     * @param query The query.
+     */
+    public void submit(Query query) {
+        filling.queries[filling.size++] = query;
+        if (filling.size == QUERIES_PER_TASK) {
+            start();
+        }
+        while (!submitted.isEmpty() && submitted.peek().done.isDone()) {
+            print(submitted.dequeue());
+        }
+    }
+
+    /**
+     * Waits for every submitted query to be answered and prints the answers.
+     * If a query failed, the answers before it are printed and its failure is
+     * thrown; the answers after it are dropped.
+     */
+    public void awaitAnswers() {
+        if (filling.size > 0) {
+            start();
+        }
+        try {
+            while (!submitted.isEmpty()) {
+                print(submitted.dequeue());
+            }
+        } finally {
+            while (!submitted.isEmpty()) {
+                submitted.dequeue().done.cancel(false);
+            }
+        }
+    }
+
+    private void start() {
+        filling.done = executor.submit(filling);
+        submitted.enqueue(filling);
+        filling = new Task();
+    }
+
+    private void print(Task task) {
+        try {
+            task.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        out.print(task.answers);
+        if (task.failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (task.failure instanceof Error e) {
+            throw e;
+        }
+    }
+}
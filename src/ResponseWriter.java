@@ -0,0 +1,148 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+
+/**
+ * Buffered writer of the responses printed to the user.
+ * <p>
+ * Text is appended to a reusable buffer and only encoded and written when the
+ * buffer grows large or {@link #flush()} is called, instead of once per line.
+ * Characters the output charset cannot encode are written as '?', like
+ * {@link PrintStream} does.
+ */
+public class ResponseWriter implements Flushable {
+
+    // Buffered characters above which the buffer is written out.
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final OutputStream out;
+    private final CharsetEncoder encoder;
+    private final StringBuilder text;
+    private final ByteBuffer bytes;
+
+    /**
+     * Creates a writer that keeps all its text in memory, until it is printed
+     * to another writer with {@link #print(ResponseWriter)}.
+     */
+    public ResponseWriter() {
+        this.out = null;
+        this.encoder = null;
+        this.text = new StringBuilder();
+        this.bytes = null;
+    }
+
+    /**
+     * Creates a writer to the given print stream, in the charset of the stream.
+     *
+     * @param out The print stream to write to.
+     */
+    public ResponseWriter(PrintStream out) {
+        this(out, out.charset());
+    }
+
+    /**
+     * Creates a writer to the given output stream.
+     *
+     * @param out The output stream to write to.
+     * @param charset The charset in which the text is written.
+     */
+    public ResponseWriter(OutputStream out, Charset charset) {
+        this.out = out;
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.text = new StringBuilder(FLUSH_THRESHOLD + 1024);
+        this.bytes = ByteBuffer.allocate(FLUSH_THRESHOLD);
+    }
+
+    public ResponseWriter print(String s) {
+        text.append(s);
+        return flushIfFull();
+    }
+
+    public ResponseWriter print(long value) {
+        text.append(value);
+        return flushIfFull();
+    }
+
+    public ResponseWriter print(Object value) {
+        text.append(value);
+        return flushIfFull();
+    }
+
+    /**
+     * Moves the text kept by another writer to the end of this one.
+     *
+     * @param kept A writer that keeps its text in memory, left empty.
+     */
+    public ResponseWriter print(ResponseWriter kept) {
+        text.append(kept.text);
+        kept.text.setLength(0);
+        return flushIfFull();
+    }
+
+    public ResponseWriter println(String s) {
+        text.append(s).append(LINE_SEPARATOR);
+        return flushIfFull();
+    }
+
+    public ResponseWriter println() {
+        text.append(LINE_SEPARATOR);
+        return flushIfFull();
+    }
+
+    /**
+     * Returns the buffer the text is appended to, for callers that build
+     * their text in place. They must call {@link #flushIfFull()} when done.
+     */
+    StringBuilder buffer() {
+        return text;
+    }
+
+    /**
+     * Writes the buffered text out if the buffer has grown large.
+     */
+    ResponseWriter flushIfFull() {
+        if (text.length() >= FLUSH_THRESHOLD && out != null) {
+            flush();
+        }
+        return this;
+    }
+
+    /**
+     * Encodes and writes out the buffered text. A writer that keeps its text
+     * in memory keeps it.
+     */
+    @Override
+    public void flush() {
+        if (text.isEmpty() || out == null) {
+            return;
+        }
+        try {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, true);
+                writeBytes();
+            } while (result.isOverflow());
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            text.setLength(0);
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        out.write(bytes.array(), 0, bytes.position());
+        bytes.clear();
+    }
+}
@@ -6,9 +6,11 @@ import Exceptions.InvalidMenuPriceException;
 import Students.Student;
 import dataStructures.*;
 
+import java.io.*;
+
 public class EatingImpl extends ServiceAbs implements Eating {
     private final int seats;
-    private final TwoWayList<Student> occupants;
+    private final PositionalList<Student> occupants;
 
     public EatingImpl(String name, long lat, long lon, int price, int seats)throws InvalidMenuPriceException, InvalidCapacityException {
         super(name, lat, lon, price, Services.ServiceType.EATING, seats);
@@ -19,7 +21,7 @@ public class EatingImpl extends ServiceAbs implements Eating {
             throw new InvalidCapacityException();
         }
         this.seats = seats;
-        this.occupants = new DoublyLinkedList<>();
+        this.occupants = new PositionalDoublyLinkedList<>();
     }
 
     @Override
@@ -38,13 +40,15 @@ public class EatingImpl extends ServiceAbs implements Eating {
             throw new EatingIsFullException();
         }
         occupants.addLast(student);
+        student.setOccupancyPosition(this, occupants.lastPosition());
     }
 
     @Override
     public void removeOccupant(Student student) {
-        int index = occupants.indexOf(student);
-        if (index != -1) {
-            occupants.remove(index);
+        Position<Student> position = student.getOccupancyPosition(this);
+        if (position != null) {
+            occupants.remove(position);
+            student.setOccupancyPosition(this, null);
         }
     }
 
@@ -53,4 +57,14 @@ public class EatingImpl extends ServiceAbs implements Eating {
         return occupants.twoWayiterator();
     }
 
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        Iterator<Position<Student>> it = occupants.positions();
+        while (it.hasNext()) {
+            Position<Student> position = it.next();
+            position.getElement().setOccupancyPosition(this, position);
+        }
+    }
+
 }
\ No newline at end of file
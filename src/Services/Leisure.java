@@ -6,4 +6,18 @@ package Services;
  * related to student discounts on ticket prices.
  */
 public interface Leisure extends Service {
+
+    /**
+     * Gets the ticket price before the student discount is applied.
+     *
+     * @return The full ticket price.
+     */
+    int getTicketPrice();
+
+    /**
+     * Gets the student discount applied to the ticket price.
+     *
+     * @return The discount percentage (0-100).
+     */
+    int getDiscount();
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import Exceptions.InvalidTicketPriceException;
 public class LeisureImpl extends ServiceAbs implements Leisure {
     int discount;
 
+    private final int ticketPrice;
+
     public LeisureImpl(String name, long lat, long lon, int price, int discount)throws InvalidTicketPriceException, InvalidDiscountPriceException {
         super(name, lat, lon, price - (price * discount / 100), Services.ServiceType.LEISURE, discount);
         if (price <= 0) {
@@ -15,6 +17,17 @@ public class LeisureImpl extends ServiceAbs implements Leisure {
             throw new InvalidDiscountPriceException();
         }
         this.discount = discount;
+        this.ticketPrice = price;
+    }
+
+    @Override
+    public int getTicketPrice() {
+        return ticketPrice;
+    }
+
+    @Override
+    public int getDiscount() {
+        return discount;
     }
 
 }
\ No newline at end of file
@@ -27,6 +27,13 @@ public interface Lodging extends LodgingReadOnly, Service {
      */
     void removeOccupant(Student student);
 
+    /**
+     * Gets the total capacity (number of rooms) of the lodging.
+     *
+     * @return The total number of rooms.
+     */
+    int getCapacity();
+
     /**
      * Checks if the lodging is at full capacity.
      *
@@ -4,14 +4,18 @@ import Exceptions.InvalidCapacityException;
 import Exceptions.InvalidRoomPriceException;
 import Exceptions.LodgingIsFullException;
 import Students.Student;
-import dataStructures.DoublyLinkedList;
+import dataStructures.Iterator;
+import dataStructures.Position;
+import dataStructures.PositionalDoublyLinkedList;
+import dataStructures.PositionalList;
 import dataStructures.TwoWayIterator;
-import dataStructures.TwoWayList;
+
+import java.io.*;
 
 public class LodgingImpl extends ServiceAbs implements Lodging {
     private final int rooms;
 
-    private final TwoWayList<Student> occupants;
+    private final PositionalList<Student> occupants;
 
     public LodgingImpl(String name, long lat, long lon, int price, int rooms) throws InvalidRoomPriceException, InvalidCapacityException {
         super(name, lat, lon, price, Services.ServiceType.LODGING, rooms);
@@ -22,7 +26,12 @@ public class LodgingImpl extends ServiceAbs implements Lodging {
             throw new InvalidCapacityException();
         }
         this.rooms = rooms;
-        this.occupants = new DoublyLinkedList<>();
+        this.occupants = new PositionalDoublyLinkedList<>();
+    }
+
+    @Override
+    public int getCapacity() {
+        return rooms;
     }
 
     @Override
@@ -36,13 +45,15 @@ public class LodgingImpl extends ServiceAbs implements Lodging {
             throw new LodgingIsFullException();
         }
         occupants.addLast(student);
+        student.setOccupancyPosition(this, occupants.lastPosition());
     }
 
     @Override
     public void removeOccupant(Student student) {
-        int index = occupants.indexOf(student);
-        if (index != -1) {
-            occupants.remove(index);
+        Position<Student> position = student.getOccupancyPosition(this);
+        if (position != null) {
+            occupants.remove(position);
+            student.setOccupancyPosition(this, null);
         }
     }
 
@@ -50,4 +61,14 @@ public class LodgingImpl extends ServiceAbs implements Lodging {
     public TwoWayIterator<Student> getOccupantsIterator() {
         return occupants.twoWayiterator();
     }
+
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        Iterator<Position<Student>> it = occupants.positions();
+        while (it.hasNext()) {
+            Position<Student> position = it.next();
+            position.getElement().setOccupancyPosition(this, position);
+        }
+    }
 }
\ No newline at end of file
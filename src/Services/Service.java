@@ -1,5 +1,8 @@
 package Services;
 
+import dataStructures.Iterator;
+import dataStructures.Position;
+
 /**
  * Interface defining the contract for all services in the system (e.g., Eating, Lodging, Leisure).
  * It outlines the core functionalities, including retrieving service details,
@@ -23,5 +26,59 @@ public interface Service extends ServiceReadOnly {
      */
     void updateStars(int stars);
 
+    /**
+     * Gets an iterator over the evaluations of this service, oldest first.
+     *
+     * @return An {@link Iterator} of {@link Evaluation}s.
+     */
+    Iterator<Evaluation> getEvaluations();
+
+    /**
+     * Gets the position of this service in the star ranking of all services.
+     *
+     * @return The {@link Position} in the ranking list of its current star rating.
+     */
+    Position<Service> getRankingPosition();
+
+    /**
+     * Records the position of this service in the star ranking of all services.
+     * Called by the service collection whenever the service enters a ranking list.
+     *
+     * @param position The {@link Position} in the ranking list of its current star rating.
+     */
+    void setRankingPosition(Position<Service> position);
+
+    /**
+     * Gets the position of this service in the star ranking of the services of its type.
+     *
+     * @return The {@link Position} in the ranking list of its type and current star rating.
+     */
+    Position<Service> getTypeRankingPosition();
+
+    /**
+     * Records the position of this service in the star ranking of the services of its type.
+     * Called by the service collection whenever the service enters a ranking list.
+     *
+     * @param position The {@link Position} in the ranking list of its type and current star rating.
+     */
+    void setTypeRankingPosition(Position<Service> position);
+
+    /**
+     * Gets the position of this service among the services with its type,
+     * current star rating and price.
+     *
+     * @return The {@link Position} in the price list of its type and current star rating.
+     */
+    Position<Service> getPricePosition();
+
+    /**
+     * Records the position of this service among the services with its type,
+     * current star rating and price.
+     * Called by the service collection whenever the service enters a price list.
+     *
+     * @param position The {@link Position} in the price list of its type and current star rating.
+     */
+    void setPricePosition(Position<Service> position);
+
 
 }
\ No newline at end of file
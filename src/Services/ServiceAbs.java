@@ -22,6 +22,12 @@ public abstract class ServiceAbs implements Service, Serializable {
 
     private final TwoWayList<Evaluation> evaluations;
 
+    private transient Position<Service> rankingPosition;
+
+    private transient Position<Service> typeRankingPosition;
+
+    private transient Position<Service> pricePosition;
+
     public ServiceAbs(String name, long lat, long lon, int price, Services.ServiceType type, int value) {
         this.name = name;
         this.lat = lat;
@@ -78,6 +84,41 @@ public abstract class ServiceAbs implements Service, Serializable {
         avgStar = ((avgStar * (totalEvaluations - 1)) + stars) / totalEvaluations;
     }
 
+    @Override
+    public Iterator<Evaluation> getEvaluations() {
+        return evaluations.iterator();
+    }
+
+    @Override
+    public Position<Service> getRankingPosition() {
+        return rankingPosition;
+    }
+
+    @Override
+    public void setRankingPosition(Position<Service> position) {
+        this.rankingPosition = position;
+    }
+
+    @Override
+    public Position<Service> getTypeRankingPosition() {
+        return typeRankingPosition;
+    }
+
+    @Override
+    public void setTypeRankingPosition(Position<Service> position) {
+        this.typeRankingPosition = position;
+    }
+
+    @Override
+    public Position<Service> getPricePosition() {
+        return pricePosition;
+    }
+
+    @Override
+    public void setPricePosition(Position<Service> position) {
+        this.pricePosition = position;
+    }
+
     @Override
     public boolean hasEvaluationWithTag(String tag) {
         Iterator<Evaluation> it = evaluations.iterator();
@@ -4,6 +4,7 @@ import Exceptions.*;
 import Services.Lodging;
 import Services.Service;
 import dataStructures.Iterator;
+import dataStructures.Position;
 
 /**
  * Interface defining the contract for all Student types in the system.
@@ -55,16 +56,45 @@ public interface Student extends StudentReadOnly {
     void moveHome(Lodging newHome) throws AlreadyStudentHomeException, LodgingIsFullException, StudentIsThriftyException;
 
     /**
-     * Finds the "most relevant" service from a given list, based on this
+     * Chooses the "most relevant" service of a type, based on this
      * student's specific criteria (polymorphic behavior).
      * <p>
-     * - Thrifty students will find the cheapest service (by price).
-     * - Bookish/Outgoing students will find the best-rated service (by avgStar).
+     * - Thrifty students will choose the cheapest service (by price).
+     * - Bookish/Outgoing students will choose the best-rated service (by avgStar).
      *
-     * @param services An iterator of services (pre-filtered by type) to evaluate.
+     * @param bestRated The best-rated service of the type.
+     * @param cheapest The cheapest service of the type.
      * @return The most relevant {@link Service} according to the student's type.
      */
-    Service findMostRelevant(Iterator<Service> services);
+    Service findMostRelevant(Service bestRated, Service cheapest);
+
+    /**
+     * Restores the home, current location and visit history of this student
+     * when its area is loaded from a snapshot. Occupant lists are not changed.
+     *
+     * @param home The lodging set as home.
+     * @param current The service the student is currently at.
+     * @param visits The visits to register, oldest first.
+     */
+    void restoreState(Lodging home, Service current, Iterator<Service> visits);
+
+    /**
+     * Gets the position this student holds in the occupants list of a service.
+     * A student occupies at most one lodging (its home) and one eating service.
+     *
+     * @param service The lodging or eating service.
+     * @return The {@link Position} in the occupants list of that kind of service, or null if none.
+     */
+    Position<Student> getOccupancyPosition(Service service);
+
+    /**
+     * Records the position this student holds in the occupants list of a service.
+     * Called by the service whenever the student is added to or removed from its occupants.
+     *
+     * @param service The lodging or eating service.
+     * @param position The {@link Position} in the occupants list, or null once removed.
+     */
+    void setOccupancyPosition(Service service, Position<Student> position);
 
     /**
      * Gets an iterator over the services this student has visited and stored.
@@ -15,6 +15,8 @@ public abstract class StudentAbs implements Student, Serializable {
     protected final TwoWayList<Service> visitedServices;
     protected final Map<Service, Boolean> visitedServicesSet;
     private final StudentType type;
+    private transient Position<Student> homePosition;
+    private transient Position<Student> eatingPosition;
 
     public StudentAbs(String name, String country, Lodging home, StudentType type) throws LodgingIsFullException {
         this.name = name;
@@ -23,7 +25,7 @@ public abstract class StudentAbs implements Student, Serializable {
         this.current = home;
         this.type = type;
         this.visitedServices = new DoublyLinkedList<>();
-        this.visitedServicesSet = new ClosedHashTable<>();
+        this.visitedServicesSet = new FlatHashTable<>();
         home.addOccupant(this);
     }
 
@@ -114,19 +116,31 @@ public abstract class StudentAbs implements Student, Serializable {
     }
 
     @Override
-    public Service findMostRelevant(Iterator<Service> services) {
-        Service bestService = null;
+    public Service findMostRelevant(Service bestRated, Service cheapest) {
+        return bestRated;
+    }
 
-        while (services.hasNext()) {
-            Service current = services.next();
+    @Override
+    public void restoreState(Lodging home, Service current, Iterator<Service> visits) {
+        this.home = home;
+        this.current = current;
+        while (visits.hasNext()) {
+            registerVisit(visits.next());
+        }
+    }
 
-            if (bestService == null) {
-                bestService = current;
-            } else if (current.getAvgStar() > bestService.getAvgStar()) {
-                bestService = current;
-            }
+    @Override
+    public Position<Student> getOccupancyPosition(Service service) {
+        return service instanceof Lodging ? homePosition : eatingPosition;
+    }
+
+    @Override
+    public void setOccupancyPosition(Service service, Position<Student> position) {
+        if (service instanceof Lodging) {
+            homePosition = position;
+        } else {
+            eatingPosition = position;
         }
-        return bestService;
     }
 
     private void updateOccupancy(Service service, boolean add) throws EatingIsFullException {
@@ -51,5 +51,19 @@ public interface Thrifty extends Student {
      */
     void updateCheapestLodging(Lodging lodging);
 
+    /**
+     * Gets the cheapest eating service this student has visited.
+     *
+     * @return The cheapest visited {@link Eating} service, or null if none.
+     */
+    Eating getCheapestEating();
+
+    /**
+     * Gets the student's internal record of the cheapest lodging.
+     *
+     * @return The cheapest {@link Lodging} service known to the student.
+     */
+    Lodging getCheapestLodging();
+
 
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package Students;
 import Exceptions.LodgingIsFullException;
 import Services.*;
-import dataStructures.Iterator;
 
 public class ThriftyImpl extends StudentAbs implements Thrifty {
 
@@ -30,6 +29,16 @@ public class ThriftyImpl extends StudentAbs implements Thrifty {
         cheapestLodging = lodging;
     }
 
+    @Override
+    public Eating getCheapestEating() {
+        return cheapestEating;
+    }
+
+    @Override
+    public Lodging getCheapestLodging() {
+        return cheapestLodging;
+    }
+
     @Override
     public boolean canMoveTo(Lodging newHome) {
         return newHome.getPrice() < cheapestLodging.getPrice();
@@ -41,20 +50,8 @@ public class ThriftyImpl extends StudentAbs implements Thrifty {
     }
 
     @Override
-    public Service findMostRelevant(Iterator<Service> services) {
-        Service cheapestService = null;
-
-        while (services.hasNext()) {
-            Service current = services.next();
-
-            if (cheapestService == null) {
-                cheapestService = current;
-            } else if (current.getPrice() < cheapestService.getPrice()) {
-                // Found a cheaper service
-                cheapestService = current;
-            }
-        }
-        return cheapestService;
+    public Service findMostRelevant(Service bestRated, Service cheapest) {
+        return cheapest;
     }
 
 }
\ No newline at end of file
@@ -82,6 +82,17 @@ public interface Area extends AreaReadOnly {
     @Override
     Iterator<Student> listAllStudents();
 
+    /**
+     * Lists a page of the students alphabetically by name.
+     * Overridden to return mutable Student type.
+     *
+     * @param offset Number of students to skip, not negative.
+     * @param limit  Most students to list, not negative.
+     * @return An {@link Iterator} of {@link Student}s.
+     */
+    @Override
+    Iterator<Student> listStudentsPage(int offset, int limit);
+
     /**
      * Lists students from a specific country in registration order.
      * Overridden to return mutable Student type.
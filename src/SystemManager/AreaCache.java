@@ -0,0 +1,73 @@
+package SystemManager;
+
+import dataStructures.*;
+
+/**
+ * Areas kept in memory after they stop being current, so that loading one of
+ * them again only swaps it back in.
+ * <p>
+ * The cache holds at most a fixed number of areas. When it is full, the least
+ * recently used area is evicted and returned to the caller, which saves it.
+ * Areas are keyed by the name of their file, since names that differ only in
+ * case or spaces share the same file.
+ */
+final class AreaCache {
+
+    /**
+     * An area with its journal, or only its header if the area was never read.
+     */
+    record Entry(String key, Area area, AreaSnapshot.Header unreadArea, AreaJournal journal) {
+    }
+
+    private final int capacity;
+
+    // Cached areas, least recently used first.
+    private final PositionalList<Entry> recency;
+    private final Map<String, Position<Entry>> positions;
+
+    /**
+     * @param capacity Number of areas kept in memory; 0 keeps none.
+     */
+    AreaCache(int capacity) {
+        this.capacity = capacity;
+        this.recency = new PositionalDoublyLinkedList<>();
+        this.positions = new SepChainHashTable<>();
+    }
+
+    /**
+     * Removes and returns the area cached with the given key.
+     * @apiNote Time Complexity: O(1) expected
+     * @return the cached area, or null if there is none
+     */
+    Entry remove(String key) {
+        Position<Entry> position = positions.remove(key);
+        return position == null ? null : recency.remove(position);
+    }
+
+    /**
+     * Caches an area as the most recently used one, replacing any area cached
+     * with the same key.
+     * @apiNote Time Complexity: O(1) expected
+     * @return the area evicted to make room for it, or null if none was
+     */
+    Entry put(Entry entry) {
+        remove(entry.key());
+        recency.addLast(entry);
+        positions.put(entry.key(), recency.lastPosition());
+        return recency.size() > capacity ? removeOldest() : null;
+    }
+
+    /**
+     * Removes and returns the least recently used area.
+     * @apiNote Time Complexity: O(1) expected
+     * @return the least recently used area, or null if the cache is empty
+     */
+    Entry removeOldest() {
+        if (recency.isEmpty()) {
+            return null;
+        }
+        Entry oldest = recency.removeFirst();
+        positions.remove(oldest.key());
+        return oldest;
+    }
+}
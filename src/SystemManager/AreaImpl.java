@@ -9,13 +9,19 @@ import dataStructures.*;
 import java.io.*;
 
 public class AreaImpl implements Area, Serializable {
+
+    // Enough stripes that moves of different students rarely share one.
+    private static final int OCCUPANCY_STRIPES = 64;
+
     String name;
     private final long topLat;
     private final long bottomLat;
     private final long leftLong;
     private final long rightLong;
-    private final StudentsCollectionImpl students;
-    private final ServicesCollectionImpl services;
+    final StudentsCollectionImpl students;
+    final ServicesCollectionImpl services;
+    // Not serialized: an area read back gets new locks, see readObject.
+    private transient StripedLocks occupancy = new StripedLocks(OCCUPANCY_STRIPES);
 
     public AreaImpl(String name, long topLat, long leftLong, long bottomLat, long rightLong) {
         this.name = name;
@@ -117,7 +123,7 @@ public class AreaImpl implements Area, Serializable {
         addService(service);
     }
 
-    private Service createService(String name, long lat, long lon, int price, ServiceType type, int value)
+    Service createService(String name, long lat, long lon, int price, ServiceType type, int value)
             throws InvalidMenuPriceException, InvalidRoomPriceException,
             InvalidTicketPriceException, InvalidCapacityException,
             InvalidDiscountPriceException {
@@ -148,6 +154,11 @@ public class AreaImpl implements Area, Serializable {
         return students.listAllStudents();
     }
 
+    @Override
+    public Iterator<Student> listStudentsPage(int offset, int limit) {
+        return students.listStudentsPage(offset, limit);
+    }
+
     @Override
     public Iterator<Student> listStudentsByCountry(String filter) {
         return students.listStudentsByCountry(filter);
@@ -168,6 +179,7 @@ public class AreaImpl implements Area, Serializable {
         Service service = getService(serviceName);
         int oldAvgStar = service.getAvgStar();
         service.addReview(rating, comment);
+        services.updateTagIndex(service, comment);
         int newAvgStar = service.getAvgStar();
         if (newAvgStar != oldAvgStar) {
             updateRankingByStars(service, oldAvgStar);
@@ -177,11 +189,13 @@ public class AreaImpl implements Area, Serializable {
     @Override
     public void removeStudentWithCleanup(String studentName) {
         Student student = getStudent(studentName);
-        Service current = student.getCurrent();
-        if (current instanceof Eating eating) {
-            eating.removeOccupant(student);
-        } else if (current instanceof Lodging lodging) {
-            lodging.removeOccupant(student);
+        try (StripedLocks.Held ignored = lockMove(student)) {
+            Service current = student.getCurrent();
+            if (current instanceof Eating eating) {
+                eating.removeOccupant(student);
+            } else if (current instanceof Lodging lodging) {
+                lodging.removeOccupant(student);
+            }
         }
         removeStudent(studentName);
     }
@@ -191,7 +205,9 @@ public class AreaImpl implements Area, Serializable {
             throws AlreadyThereException, NotValidServiceException, EatingIsFullException {
         Student student = getStudent(studentName);
         Service service = getService(serviceName);
-        student.goToLocation(service);
+        try (StripedLocks.Held ignored = lockMove(student, service)) {
+            student.goToLocation(service);
+        }
     }
 
     @Override
@@ -199,7 +215,46 @@ public class AreaImpl implements Area, Serializable {
             throws AlreadyStudentHomeException, LodgingIsFullException, StudentIsThriftyException {
         Student student = getStudent(studentName);
         Service service = getService(lodgingName);
-        student.moveHome(((Lodging) service));
+        try (StripedLocks.Held ignored = lockMove(student, service)) {
+            student.moveHome(((Lodging) service));
+        }
+    }
+
+    /**
+     * Locks a student and the services whose occupants a move of it may change:
+     * where it is, its home and the given services. Moves that share none of
+     * them may then run in parallel, and the capacity of the services is checked
+     * and taken by one move at a time. Locks held by the calling thread are taken again.
+     *
+     * @param student The student to move.
+     * @param services The services it moves to.
+     * @return The locks held, to be released when the move is done.
+     */
+    StripedLocks.Held lockMove(Student student, Service... services) {
+        Object[] objects = new Object[services.length + 3];
+        System.arraycopy(services, 0, objects, 3, services.length);
+        objects[0] = student;
+        while (true) {
+            Service current = student.getCurrent();
+            Lodging home = student.getHome();
+            objects[1] = current;
+            objects[2] = home;
+            StripedLocks.Held held = occupancy.lock(objects);
+            // A move of the student that got its lock first may have changed them.
+            if (student.getCurrent() == current && student.getHome() == home) {
+                return held;
+            }
+            held.close();
+        }
+    }
+
+    /**
+     * Locks a student and the services a move of it to the named service may change.
+     *
+     * @see #lockMove(Student, Service...)
+     */
+    StripedLocks.Held lockMove(String studentName, String serviceName) {
+        return lockMove(getStudent(studentName), getService(serviceName));
     }
 
     @Override
@@ -241,40 +296,15 @@ public class AreaImpl implements Area, Serializable {
     @Override
     public Service findRelevantServiceForStudent(String studentName, ServiceType serviceType) {
         Student student = getStudent(studentName);
-        Iterator<Service> typeServicesIterator = getServicesByTypeOrderedByStars(serviceType);
-        return student.findMostRelevant(typeServicesIterator);
+        return student.findMostRelevant(services.getBestRatedServiceOfType(serviceType),
+            services.getCheapestServiceOfType(serviceType));
     }
 
     @Override
     public Iterator<Service> getClosestServicesByTypeAndStars(String studentName, ServiceType type, int stars) {
         Student student = getStudent(studentName);
-
-        Iterator<Service> filteredByTypeStars = getServicesByTypeAndStars(type, stars);
-        List<Service> closestServices = new DoublyLinkedList<>();
-        long minDistance = Long.MAX_VALUE;
-
-        while (filteredByTypeStars.hasNext()) {
-            Service service = filteredByTypeStars.next();
-            long currentDistance = calculateManhattanDistance(
-                    student.getCurrent().getLatitude(),
-                    student.getCurrent().getLongitude(),
-                    service.getLatitude(),
-                    service.getLongitude());
-
-            if (currentDistance < minDistance) {
-                closestServices = new DoublyLinkedList<>();
-                closestServices.addLast(service);
-                minDistance = currentDistance;
-            } else if (currentDistance == minDistance) {
-                closestServices.addLast(service);
-            }
-        }
-
-        return closestServices.iterator();
-    }
-
-    private long calculateManhattanDistance(long lat1, long lon1, long lat2, long lon2) {
-        return Math.abs(lat1 - lat2) + Math.abs(lon1 - lon2);
+        Service location = student.getCurrent();
+        return services.getClosestServicesByTypeAndStars(type, stars, location.getLatitude(), location.getLongitude());
     }
 
     @Override
@@ -335,7 +365,7 @@ public class AreaImpl implements Area, Serializable {
         return student.getType();
     }
 
-    private Student createStudentByType(StudentType type, String name, String country, Lodging lodging)
+    Student createStudentByType(StudentType type, String name, String country, Lodging lodging)
             throws LodgingIsFullException {
         return switch (type) {
             case BOOKISH -> new BookishImpl(name, country, lodging);
@@ -344,5 +374,10 @@ public class AreaImpl implements Area, Serializable {
         };
     }
 
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        occupancy = new StripedLocks(OCCUPANCY_STRIPES);
+    }
 }
 
@@ -0,0 +1,320 @@
+package SystemManager;
+
+import Exceptions.*;
+import Services.ServiceType;
+import Students.StudentType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Append-only journal of the changes made to an area since its last snapshot.
+ * <p>
+ * Every call that changes an area is recorded before it is applied, whether it
+ * succeeds or not: some failing calls (a full eating service, a repeated student)
+ * still change the area before throwing, and replaying them reproduces that.
+ * Records are kept in memory and appended to the journal file when the area is saved.
+ * Moves of students may be recorded by several threads at once, each record whole.
+ * <p>
+ * The journal file starts with the id of the snapshot it extends, and is only
+ * replayed on top of that snapshot. Once the journal grows past half the size of
+ * the snapshot, the next background save writes a new snapshot instead and
+ * starts an empty journal.
+ */
+final class AreaJournal {
+
+    private static final int MAGIC = 0x414A4E4C; // "AJNL"
+    private static final int VERSION = 1;
+
+    private static final int ADD_SERVICE = 1;
+    private static final int ADD_REVIEW = 2;
+    private static final int ADD_STUDENT = 3;
+    private static final int REMOVE_STUDENT = 4;
+    private static final int GO = 5;
+    private static final int MOVE_HOME = 6;
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+
+    private final Path file;
+    private long snapshotId;
+    private long snapshotBytes;
+    private long journalBytes;
+    private final ByteArrayOutputStream pendingBytes;
+    private final DataOutputStream pending;
+
+    private AreaJournal(Path file, long snapshotId, long snapshotBytes, long journalBytes) {
+        this.file = file;
+        this.snapshotId = snapshotId;
+        this.snapshotBytes = snapshotBytes;
+        this.journalBytes = journalBytes;
+        this.pendingBytes = new ByteArrayOutputStream();
+        this.pending = new DataOutputStream(pendingBytes);
+    }
+
+    /**
+     * Starts the journal of an area that has no snapshot yet.
+     * The first save of the area writes its snapshot.
+     */
+    static AreaJournal create(Path file) {
+        return new AreaJournal(file, 0, 0, -1);
+    }
+
+    /**
+     * Opens the journal that extends the given snapshot, if the journal file belongs to it.
+     */
+    static AreaJournal open(Path file, long snapshotId, long snapshotBytes) {
+        return new AreaJournal(file, snapshotId, snapshotBytes, belongsTo(file, snapshotId) ? sizeOf(file) : 0);
+    }
+
+    void addService(ServiceType type, String name, long lat, long lon, int price, int value) {
+        try {
+            pending.writeByte(ADD_SERVICE);
+            pending.writeByte(type.ordinal());
+            writeString(name);
+            pending.writeLong(lat);
+            pending.writeLong(lon);
+            pending.writeInt(price);
+            pending.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void addReview(String serviceName, int rating, String comment) {
+        try {
+            pending.writeByte(ADD_REVIEW);
+            writeString(serviceName);
+            pending.writeByte(rating);
+            writeString(comment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void addStudent(StudentType type, String name, String country, String lodgingName) {
+        try {
+            pending.writeByte(ADD_STUDENT);
+            pending.writeByte(type.ordinal());
+            writeString(name);
+            writeString(country);
+            writeString(lodgingName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void removeStudent(String name) {
+        try {
+            pending.writeByte(REMOVE_STUDENT);
+            writeString(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void goToLocation(String studentName, String serviceName) {
+        try {
+            pending.writeByte(GO);
+            writeString(studentName);
+            writeString(serviceName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void moveHome(String studentName, String lodgingName) {
+        try {
+            pending.writeByte(MOVE_HOME);
+            writeString(studentName);
+            writeString(lodgingName);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        pending.writeInt(bytes.length);
+        pending.write(bytes);
+    }
+
+    /**
+     * Returns true if the area has a snapshot for the journal to extend.
+     */
+    boolean hasSnapshot() {
+        return journalBytes >= 0;
+    }
+
+    /**
+     * Returns true if the next save should write a new snapshot instead of
+     * appending to the journal: the area has no snapshot yet, or the journal
+     * has grown past half the size of the snapshot.
+     */
+    boolean needsSnapshot() {
+        return !hasSnapshot() || 2 * (journalBytes + pendingBytes.size()) > snapshotBytes;
+    }
+
+    /**
+     * Writes a new snapshot of the area and starts an empty journal on top of it.
+     * Pending records are dropped, since the snapshot already includes them.
+     */
+    void checkpoint(AreaImpl area, Path snapshotFile) throws IOException {
+        long id = newSnapshotId();
+        AreaSnapshot.write(area, snapshotFile, id);
+        this.snapshotId = id;
+        this.snapshotBytes = Files.size(snapshotFile);
+        this.journalBytes = 0;
+        pendingBytes.reset();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Appends the pending records to the journal file.
+     */
+    void flush() throws IOException {
+        if (pendingBytes.size() == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (journalBytes == 0) {
+                channel.truncate(0);
+                writeFully(channel, header(snapshotId));
+                journalBytes = HEADER_BYTES;
+            }
+            // Drops what an interrupted save may have left after the last whole record.
+            channel.truncate(journalBytes);
+            channel.position(journalBytes);
+            writeFully(channel, ByteBuffer.wrap(pendingBytes.toByteArray()));
+        }
+        journalBytes += pendingBytes.size();
+        pendingBytes.reset();
+    }
+
+    /**
+     * Returns a fresh id for the next snapshot of the area. Ids are random, so a
+     * journal left behind by an earlier area with the same name is never replayed.
+     */
+    private long newSnapshotId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0 || id == snapshotId);
+        return id;
+    }
+
+    /**
+     * Applies the records of the journal file to the area read from its snapshot.
+     * A record cut short at the end of the file, left by an interrupted save, is ignored.
+     */
+    void replay(AreaImpl area) throws IOException {
+        if (journalBytes <= 0) {
+            return;
+        }
+        journalBytes = HEADER_BYTES;
+        try (SnapshotReader in = new SnapshotReader(file)) {
+            readHeader(in);
+            int op;
+            while ((op = readOp(in)) != -1) {
+                try {
+                    apply(op, in, area);
+                } catch (EOFException e) {
+                    break;
+                }
+                journalBytes = in.position();
+            }
+        }
+    }
+
+    private static int readOp(SnapshotReader in) throws IOException {
+        try {
+            return in.readByte();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    private static void apply(int op, SnapshotReader in, AreaImpl area) throws IOException {
+        try {
+            switch (op) {
+                case ADD_SERVICE -> {
+                    ServiceType type = ServiceType.values()[in.readByte()];
+                    String name = in.readString();
+                    long lat = in.readLong();
+                    long lon = in.readLong();
+                    int price = in.readInt();
+                    int value = in.readInt();
+                    area.createAndAddService(type, name, lat, lon, price, value);
+                }
+                case ADD_REVIEW -> {
+                    String serviceName = in.readString();
+                    int rating = in.readByte();
+                    area.addReviewToService(serviceName, rating, in.readString());
+                }
+                case ADD_STUDENT -> {
+                    StudentType type = StudentType.values()[in.readByte()];
+                    String name = in.readString();
+                    String country = in.readString();
+                    area.addStudentWithLodging(type, name, country, in.readString());
+                }
+                case REMOVE_STUDENT -> area.removeStudentWithCleanup(in.readString());
+                case GO -> {
+                    String studentName = in.readString();
+                    area.moveStudentToService(studentName, in.readString());
+                }
+                case MOVE_HOME -> {
+                    String studentName = in.readString();
+                    area.moveStudentHome(studentName, in.readString());
+                }
+                default -> throw new StreamCorruptedException("Unknown journal record " + op);
+            }
+        } catch (ServiceAlreadyExistsException | InvalidMenuPriceException | InvalidRoomPriceException
+                 | InvalidTicketPriceException | InvalidDiscountPriceException | InvalidCapacityException
+                 | StudentAlreadyExistsException | LodgingIsFullException | AlreadyThereException
+                 | NotValidServiceException | EatingIsFullException | AlreadyStudentHomeException
+                 | StudentIsThriftyException ignored) {
+            // The call failed the same way when it was recorded.
+        }
+    }
+
+    private static boolean belongsTo(Path file, long snapshotId) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (SnapshotReader in = new SnapshotReader(file)) {
+            return readHeader(in) == snapshotId;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long readHeader(SnapshotReader in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new StreamCorruptedException("Not an area journal");
+        }
+        return in.readLong();
+    }
+
+    private static ByteBuffer header(long snapshotId) {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(snapshotId).flip();
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
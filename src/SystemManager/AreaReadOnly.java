@@ -142,6 +142,15 @@ public interface AreaReadOnly {
      */
     Iterator<? extends StudentReadOnly> listAllStudents();
 
+    /**
+     * Lists a page of the students alphabetically by name.
+     *
+     * @param offset Number of students to skip, not negative.
+     * @param limit  Most students to list, not negative.
+     * @return An {@link Iterator} of {@link StudentReadOnly}s.
+     */
+    Iterator<? extends StudentReadOnly> listStudentsPage(int offset, int limit);
+
     /**
      * Lists students from a specific country in registration order.
      *
@@ -0,0 +1,81 @@
+package SystemManager;
+
+import dataStructures.*;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.concurrent.*;
+
+/**
+ * Saves the areas that stop being current on a background thread, in the order
+ * they are handed over.
+ * <p>
+ * An area handed to the saver is no longer used by the caller, so the saver
+ * works on a frozen area without copying it. The worker thread is not a daemon:
+ * the program does not end before the pending saves are written, and the thread
+ * ends by itself shortly after it becomes idle.
+ */
+final class AreaSaver {
+
+    private static final long IDLE_MILLIS = 100;
+
+    private final ExecutorService executor;
+    private final Map<Path, Future<?>> pendingSaves;
+
+    AreaSaver() {
+        this.executor = new ThreadPoolExecutor(0, 1, IDLE_MILLIS, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), task -> new Thread(task, "area-saver"));
+        this.pendingSaves = new SepChainHashTable<>();
+    }
+
+    /**
+     * Saves the area in the background: appends its journal, or writes a new
+     * snapshot if the journal has grown too large.
+     *
+     * @param area The area, which the caller must not use anymore.
+     * @param journal The journal of the area.
+     * @param snapshotFile The snapshot file of the area.
+     */
+    void save(AreaImpl area, AreaJournal journal, Path snapshotFile) {
+        pendingSaves.put(snapshotFile, executor.submit(() -> {
+            try {
+                if (journal.needsSnapshot()) {
+                    journal.checkpoint(area, snapshotFile);
+                } else {
+                    journal.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }));
+    }
+
+    /**
+     * Waits until the area last handed over with the given snapshot file is saved.
+     *
+     * @param snapshotFile The snapshot file of the area.
+     */
+    void awaitSaved(Path snapshotFile) {
+        Future<?> save = pendingSaves.remove(snapshotFile);
+        if (save == null) {
+            return;
+        }
+        try {
+            save.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+        }
+    }
+
+    /**
+     * Waits until every area handed over is saved. No area can be handed over afterwards.
+     */
+    void awaitAll() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
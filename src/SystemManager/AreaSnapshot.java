@@ -0,0 +1,444 @@
+package SystemManager;
+
+import Exceptions.*;
+import Services.*;
+import Students.*;
+import dataStructures.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary snapshot of an {@link AreaImpl}.
+ * <p>
+ * After the header (magic number, version) and the area record come the sections,
+ * each opened by its tag: services, evaluations, ranking, students and occupancy.
+ * Services and students are referenced by their index in their own section,
+ * so the student-service graph is written without recursion.
+ * <p>
+ * Every list whose order is observable (insertion, star ranking, students per
+ * country, occupants, visits) is written in that order and rebuilt by appending.
+ * <p>
+ * Since version 3 the end tag is followed by the CRC-32 of every byte before it,
+ * so a snapshot cut short or damaged is refused when its area is loaded.
+ */
+final class AreaSnapshot {
+
+    private static final int MAGIC = 0x41524541; // "AREA"
+    private static final int VERSION = 3;
+    private static final int FIRST_CHECKSUMMED_VERSION = 3;
+
+    private static final int END = 0;
+    private static final int SERVICES = 1;
+    private static final int EVALUATIONS = 2;
+    private static final int RANKING = 3;
+    private static final int STUDENTS = 4;
+    private static final int OCCUPANCY = 5;
+
+    private static final int NONE = -1;
+
+    /**
+     * Version, id, size, name and bounds of a saved area, readable without reading the rest of its snapshot.
+     */
+    record Header(Path file, int version, long snapshotId, long bytes, String name,
+                  long topLat, long leftLong, long bottomLat, long rightLong) {
+
+        /**
+         * Returns true if the snapshot ends with a checksum, so that reading its
+         * header checked the rest of it. Older snapshots are only checked by reading their area.
+         */
+        boolean checksummed() {
+            return version >= FIRST_CHECKSUMMED_VERSION;
+        }
+    }
+
+    private AreaSnapshot() {
+    }
+
+    static void write(AreaImpl area, Path file, long snapshotId) throws IOException {
+        try (SnapshotWriter out = new SnapshotWriter(file)) {
+            write(out, area, snapshotId);
+        }
+    }
+
+    /**
+     * Reads the header of a snapshot. If the snapshot has a checksum, the rest of
+     * it is checked against it first, in one pass over the file that parses nothing,
+     * so this takes time in the size of the file.
+     */
+    static Header readHeader(Path file) throws IOException {
+        Header header;
+        try (SnapshotReader in = new SnapshotReader(file)) {
+            header = readHeader(in, file, Files.size(file));
+        }
+        if (header.checksummed()) {
+            verifyChecksum(file, header.bytes());
+        }
+        return header;
+    }
+
+    static AreaImpl read(Path file) throws IOException {
+        try (SnapshotReader in = new SnapshotReader(file)) {
+            return read(in, readHeader(in, file, Files.size(file)));
+        }
+    }
+
+    /**
+     * Returns a copy of the area that shares nothing with it, by writing its
+     * snapshot to memory and reading it back. Every record of the area is
+     * written and parsed again, so this takes time in the size of the area.
+     */
+    static AreaImpl copy(AreaImpl area) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter out = new SnapshotWriter(Channels.newChannel(bytes))) {
+            write(out, area, 0);
+        }
+        InputStream copied = new ByteArrayInputStream(bytes.toByteArray());
+        try (SnapshotReader in = new SnapshotReader(Channels.newChannel(copied))) {
+            return read(in, readHeader(in, null, bytes.size()));
+        }
+    }
+
+    private static void write(SnapshotWriter out, AreaImpl area, long snapshotId) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(snapshotId);
+        out.writeString(area.getName());
+        out.writeLong(area.getTopLat());
+        out.writeLong(area.getLeftLong());
+        out.writeLong(area.getBottomLat());
+        out.writeLong(area.getRightLong());
+
+        Map<Service, Integer> serviceIds = writeServices(out, area);
+        writeEvaluations(out, area);
+        writeRanking(out, area, serviceIds);
+        Map<Student, Integer> studentIds = writeStudents(out, area, serviceIds);
+        writeOccupancy(out, area, studentIds);
+        out.writeByte(END);
+        out.writeChecksum();
+    }
+
+    private static AreaImpl read(SnapshotReader in, Header header) throws IOException {
+        try {
+            AreaImpl area = new AreaImpl(header.name(), header.topLat(), header.leftLong(),
+                header.bottomLat(), header.rightLong());
+
+            Service[] services = readServices(in, area);
+            readEvaluations(in, area, services);
+            readRanking(in, area, services);
+            Student[] students = readStudents(in, area, services);
+            readOccupancy(in, services, students);
+            expectSection(in, END);
+            return area;
+        } catch (InvalidMenuPriceException | InvalidRoomPriceException | InvalidTicketPriceException
+                 | InvalidDiscountPriceException | InvalidCapacityException | LodgingIsFullException
+                 | EatingIsFullException | StudentAlreadyExistsException e) {
+            throw new IOException("Inconsistent area snapshot", e);
+        }
+    }
+
+    private static Header readHeader(SnapshotReader in, Path file, long bytes) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not an area snapshot");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) {
+            throw new StreamCorruptedException("Unsupported area snapshot version " + version);
+        }
+        // Version 1 snapshots have no id, and no journal can extend them.
+        long snapshotId = version == 1 ? 0 : in.readLong();
+        return new Header(file, version, snapshotId, bytes, in.readString(),
+            in.readLong(), in.readLong(), in.readLong(), in.readLong());
+    }
+
+    /**
+     * Checks the CRC-32 at the end of a snapshot file against the bytes before it.
+     */
+    private static void verifyChecksum(Path file, long bytes) throws IOException {
+        long body = bytes - Integer.BYTES;
+        if (body < 0) {
+            throw new EOFException();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CRC32 checksum = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            long position = 0;
+            while (position < body) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), body - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException();
+                }
+                position += read;
+                checksum.update(buffer.flip());
+            }
+            buffer.clear().limit(Integer.BYTES);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            if (buffer.flip().getInt() != (int) checksum.getValue()) {
+                throw new StreamCorruptedException("Area snapshot checksum mismatch");
+            }
+        }
+    }
+
+    private static Map<Service, Integer> writeServices(SnapshotWriter out, AreaImpl area) throws IOException {
+        Map<Service, Integer> ids = new RobinHoodHashTable<>(area.services.size());
+        out.writeByte(SERVICES);
+        out.writeInt(area.services.size());
+
+        Iterator<Service> it = area.services.listServices();
+        while (it.hasNext()) {
+            Service service = it.next();
+            ids.put(service, ids.size());
+            out.writeByte(service.getType().ordinal());
+            out.writeString(service.getName());
+            out.writeLong(service.getLatitude());
+            out.writeLong(service.getLongitude());
+            if (service instanceof Eating eating) {
+                out.writeInt(eating.getPrice());
+                out.writeInt(eating.getCapacity());
+            } else if (service instanceof Lodging lodging) {
+                out.writeInt(lodging.getPrice());
+                out.writeInt(lodging.getCapacity());
+            } else if (service instanceof Leisure leisure) {
+                out.writeInt(leisure.getTicketPrice());
+                out.writeInt(leisure.getDiscount());
+            }
+        }
+        return ids;
+    }
+
+    private static Service[] readServices(SnapshotReader in, AreaImpl area) throws IOException,
+            InvalidMenuPriceException, InvalidRoomPriceException, InvalidTicketPriceException,
+            InvalidDiscountPriceException, InvalidCapacityException {
+        expectSection(in, SERVICES);
+        Service[] services = new Service[in.readInt()];
+
+        for (int i = 0; i < services.length; i++) {
+            ServiceType type = ServiceType.values()[in.readByte()];
+            String name = in.readString();
+            long lat = in.readLong();
+            long lon = in.readLong();
+            int price = in.readInt();
+            int value = in.readInt();
+            services[i] = area.createService(name, lat, lon, price, type, value);
+            area.services.register(services[i]);
+        }
+        return services;
+    }
+
+    private static void writeEvaluations(SnapshotWriter out, AreaImpl area) throws IOException {
+        out.writeByte(EVALUATIONS);
+
+        Iterator<Service> it = area.services.listServices();
+        while (it.hasNext()) {
+            Iterator<Evaluation> evaluations = it.next().getEvaluations();
+            // The opening review of every service is recreated by its constructor.
+            evaluations.next();
+            while (evaluations.hasNext()) {
+                Evaluation evaluation = evaluations.next();
+                out.writeByte(evaluation.getStars());
+                out.writeString(evaluation.getDescription());
+            }
+            out.writeByte(END);
+        }
+    }
+
+    private static void readEvaluations(SnapshotReader in, AreaImpl area, Service[] services) throws IOException {
+        expectSection(in, EVALUATIONS);
+
+        for (Service service : services) {
+            int stars;
+            while ((stars = in.readByte()) != END) {
+                String comment = in.readString();
+                service.addReview(stars, comment);
+                area.services.updateTagIndex(service, comment);
+            }
+        }
+    }
+
+    private static void writeRanking(SnapshotWriter out, AreaImpl area, Map<Service, Integer> serviceIds)
+            throws IOException {
+        out.writeByte(RANKING);
+        out.writeInt(area.services.size());
+
+        Iterator<Service> it = area.services.getServicesByStars();
+        while (it.hasNext()) {
+            out.writeInt(serviceIds.get(it.next()));
+        }
+    }
+
+    private static void readRanking(SnapshotReader in, AreaImpl area, Service[] services) throws IOException {
+        expectSection(in, RANKING);
+        int count = in.readInt();
+
+        for (int i = 0; i < count; i++) {
+            area.services.rank(services[in.readInt()]);
+        }
+    }
+
+    private static Map<Student, Integer> writeStudents(SnapshotWriter out, AreaImpl area,
+            Map<Service, Integer> serviceIds) throws IOException {
+        Map<Student, Integer> ids = new RobinHoodHashTable<>();
+        List<Student> students = new DoublyLinkedList<>();
+
+        Iterator<List<Student>> countries = area.students.listCountryLists();
+        while (countries.hasNext()) {
+            Iterator<Student> it = countries.next().iterator();
+            while (it.hasNext()) {
+                addStudentId(it.next(), ids, students);
+            }
+        }
+        int listed = students.size();
+
+        // Removed students may still be listed as occupants of their lodging.
+        Iterator<Service> services = area.services.listServices();
+        while (services.hasNext()) {
+            Iterator<Student> it = occupantsOf(services.next());
+            while (it != null && it.hasNext()) {
+                addStudentId(it.next(), ids, students);
+            }
+        }
+
+        out.writeByte(STUDENTS);
+        out.writeInt(students.size());
+        out.writeInt(listed);
+
+        Iterator<Student> it = students.iterator();
+        while (it.hasNext()) {
+            Student student = it.next();
+            out.writeByte(student.getType().ordinal());
+            out.writeString(student.getName());
+            out.writeString(student.getCountry());
+            out.writeInt(serviceIds.get(student.getHome()));
+            out.writeInt(serviceIds.get(student.getCurrent()));
+            writeIds(out, student.getVisitedIterator(), serviceIds);
+
+            if (student instanceof Thrifty thrifty) {
+                Eating cheapestEating = thrifty.getCheapestEating();
+                out.writeInt(serviceIds.get(thrifty.getCheapestLodging()));
+                out.writeInt(cheapestEating == null ? NONE : serviceIds.get(cheapestEating));
+            }
+        }
+        return ids;
+    }
+
+    private static void addStudentId(Student student, Map<Student, Integer> ids, List<Student> students) {
+        if (ids.get(student) == null) {
+            ids.put(student, students.size());
+            students.addLast(student);
+        }
+    }
+
+    private static Student[] readStudents(SnapshotReader in, AreaImpl area, Service[] services)
+            throws IOException, LodgingIsFullException, StudentAlreadyExistsException {
+        expectSection(in, STUDENTS);
+        Student[] students = new Student[in.readInt()];
+        int listed = in.readInt();
+
+        for (int i = 0; i < students.length; i++) {
+            StudentType type = StudentType.values()[in.readByte()];
+            String name = in.readString();
+            String country = in.readString();
+            Lodging home = (Lodging) services[in.readInt()];
+            Service current = services[in.readInt()];
+
+            List<Service> visits = new DoublyLinkedList<>();
+            int visitCount = in.readInt();
+            for (int j = 0; j < visitCount; j++) {
+                visits.addLast(services[in.readInt()]);
+            }
+
+            // An outgoing student's history starts with the lodging it was created in.
+            Lodging firstHome = type == StudentType.OUTGOING ? (Lodging) visits.removeFirst() : home;
+            Student student = area.createStudentByType(type, name, country, firstHome);
+            firstHome.removeOccupant(student);
+            student.restoreState(home, current, visits.iterator());
+
+            if (student instanceof Thrifty thrifty) {
+                thrifty.updateCheapestLodging((Lodging) services[in.readInt()]);
+                int cheapestEating = in.readInt();
+                if (cheapestEating != NONE) {
+                    thrifty.visitEating((Eating) services[cheapestEating]);
+                }
+            }
+            if (i < listed) {
+                area.students.addStudent(student);
+            }
+            students[i] = student;
+        }
+        return students;
+    }
+
+    private static void writeOccupancy(SnapshotWriter out, AreaImpl area, Map<Student, Integer> studentIds)
+            throws IOException {
+        out.writeByte(OCCUPANCY);
+
+        Iterator<Service> services = area.services.listServices();
+        while (services.hasNext()) {
+            Iterator<Student> occupants = occupantsOf(services.next());
+            if (occupants != null) {
+                writeIds(out, occupants, studentIds);
+            }
+        }
+    }
+
+    private static void readOccupancy(SnapshotReader in, Service[] services, Student[] students)
+            throws IOException, LodgingIsFullException, EatingIsFullException {
+        expectSection(in, OCCUPANCY);
+
+        for (Service service : services) {
+            if (service instanceof Eating eating) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    eating.addOccupant(students[in.readInt()]);
+                }
+            } else if (service instanceof Lodging lodging) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    lodging.addOccupant(students[in.readInt()]);
+                }
+            }
+        }
+    }
+
+    private static Iterator<Student> occupantsOf(Service service) {
+        if (service instanceof Eating eating) {
+            return eating.getOccupantsIterator();
+        } else if (service instanceof Lodging lodging) {
+            return lodging.getOccupantsIterator();
+        }
+        return null;
+    }
+
+    private static <E> void writeIds(SnapshotWriter out, Iterator<E> elements, Map<E, Integer> ids)
+            throws IOException {
+        int count = 0;
+        while (elements.hasNext()) {
+            elements.next();
+            count++;
+        }
+        elements.rewind();
+
+        out.writeInt(count);
+        while (elements.hasNext()) {
+            out.writeInt(ids.get(elements.next()));
+        }
+    }
+
+    private static void expectSection(SnapshotReader in, int section) throws IOException {
+        int tag = in.readByte();
+        if (tag != section) {
+            throw new StreamCorruptedException("Expected section " + section + " but found " + tag);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package SystemManager;
+
+import dataStructures.ConcurrentQueueInArray;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Shared system owned by a single writer thread, as an alternative to locking it.
+ * <p>
+ * Commands that change the system, from any number of threads, go into a bounded
+ * queue without locks, and the writer runs them one after the other, in the order
+ * they were queued. It takes them in batches: after a batch it publishes its
+ * changes once, and wakes the threads that queued it. Moves of students are run
+ * by the writer like any other change.
+ * <p>
+ * Queries never wait for the writer unless the system changed since the last
+ * published snapshot: they run on that snapshot, an immutable copy of the system,
+ * in parallel with each other and with the writer. A stale snapshot is replaced
+ * by asking the writer for a new one through the queue, so a query sees every
+ * change that returned before it started.
+ * <p>
+ * Each snapshot costs time and memory in the size of the area: the writer writes
+ * the whole area to memory and reads it back, and runs no changes meanwhile. That
+ * pays off when queries outnumber the batches of changes between them; when changes
+ * and queries alternate, a locking system answers queries with less work.
+ */
+public class EventLoopSystemManager implements SharedSystem {
+
+    /**
+     * Number of commands that may wait for the writer at once.
+     */
+    public static final int QUEUE_CAPACITY = 1024;
+
+    // Most commands the writer runs before publishing them.
+    private static final int MAX_BATCH = 64;
+
+    /**
+     * Command waiting for the writer, or, without an action, a request for a new snapshot.
+     */
+    private static final class Command {
+        final Consumer<SystemManager> action;
+        final Thread sender;
+        Throwable failure;
+        volatile boolean done;
+
+        Command(Consumer<SystemManager> action) {
+            this.action = action;
+            this.sender = Thread.currentThread();
+        }
+    }
+
+    /**
+     * Immutable copy of the system, and the number of batches of changes it includes.
+     */
+    private record Snapshot(SystemManager system, long version) {
+    }
+
+    private final SystemManagerImpl system;
+    private final ConcurrentQueueInArray<Command> commands;
+
+    // Free places in the queue, taken before queueing and given back a batch at a time.
+    private final Semaphore room;
+    private final Thread writer;
+    private final Command[] batch;
+
+    // Set while the writer is parked or about to be, so that senders wake it.
+    private volatile boolean idle;
+    private boolean running;
+
+    // Batches run so far that changed the system; commands that changed
+    // nothing leave the published snapshot current. A command that failed
+    // counts if it changed the area first, see SystemManagerImpl.changes.
+    private volatile long version;
+    private volatile Snapshot published;
+
+    /**
+     * @param system The system to own, which must not be used directly anymore.
+     */
+    public EventLoopSystemManager(SystemManagerImpl system) {
+        this.system = system;
+        this.commands = new ConcurrentQueueInArray<>(QUEUE_CAPACITY);
+        this.room = new Semaphore(commands.capacity());
+        this.batch = new Command[MAX_BATCH];
+        this.running = true;
+        this.version = 0;
+        this.published = new Snapshot(system.snapshot(), 0);
+        this.writer = Thread.ofPlatform().name("area-writer").daemon().start(this::run);
+    }
+
+    /**
+     * Runs an action on the latest snapshot of the system, asking the writer for a
+     * new one first if the system changed since.
+     */
+    @Override
+    public void reading(Consumer<SystemManager> action) {
+        Snapshot snapshot = published;
+        if (snapshot.version() != version) {
+            send(new Command(null));
+            snapshot = published;
+        }
+        action.accept(snapshot.system());
+    }
+
+    /**
+     * Runs an action on the writer, like {@link #writing(Consumer)}.
+     */
+    @Override
+    public void moving(Consumer<SystemManager> action) {
+        writing(action);
+    }
+
+    /**
+     * Runs an action on the writer, after every command queued before it, and
+     * waits for it to finish. Exceptions it throws are thrown here.
+     */
+    @Override
+    public void writing(Consumer<SystemManager> action) {
+        send(new Command(action));
+    }
+
+    @Override
+    public void shutdown() {
+        writing(system -> {
+            system.shutdown();
+            running = false;
+        });
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(Command command) {
+        room.acquireUninterruptibly();
+        commands.enqueue(command);
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        while (!command.done) {
+            LockSupport.park(this);
+        }
+        if (command.failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (command.failure instanceof Error e) {
+            throw e;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            int size = 0;
+            Command command;
+            while (size < MAX_BATCH && (command = commands.poll()) != null) {
+                batch[size++] = command;
+            }
+            if (size == 0) {
+                idle = true;
+                // A sender that queued before idle was set did not wake the writer.
+                if (commands.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                continue;
+            }
+            room.release(size);
+            runBatch(size);
+        }
+    }
+
+    private void runBatch(int size) {
+        long changes = system.changes();
+        boolean snapshotAsked = false;
+        for (int i = 0; i < size; i++) {
+            Command command = batch[i];
+            if (command.action == null) {
+                snapshotAsked = true;
+                continue;
+            }
+            try {
+                command.action.accept(system);
+            } catch (RuntimeException | Error e) {
+                command.failure = e;
+            }
+        }
+        if (system.changes() != changes) {
+            version++;
+        }
+        if (snapshotAsked && published.version() != version) {
+            try {
+                published = new Snapshot(system.snapshot(), version);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < size; i++) {
+                    if (batch[i].action == null) {
+                        batch[i].failure = e;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            Command command = batch[i];
+            batch[i] = null;
+            command.done = true;
+            LockSupport.unpark(command.sender);
+        }
+    }
+}
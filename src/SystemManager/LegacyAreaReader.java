@@ -0,0 +1,193 @@
+package SystemManager;
+
+import Exceptions.*;
+import Services.*;
+import Students.*;
+import Legacy.EatingImpl;
+import Legacy.LodgingImpl;
+import Legacy.ServiceAbs;
+import Legacy.StudentAbs;
+import Legacy.ThriftyImpl;
+import dataStructures.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reader of the areas saved by earlier versions, which wrote the whole area
+ * with Java serialization.
+ * <p>
+ * The classes of the saved area have changed since, so the file is read into
+ * the stand-ins of {@link Legacy}, which have the fields those
+ * classes had, and the area is rebuilt from them the way a snapshot is: services
+ * in order of registration, their reviews, the ranking, the students and the
+ * occupants of every service, each in its saved order.
+ */
+final class LegacyAreaReader {
+
+    // Classes whose fields changed since, read into the stand-in of the same name.
+    private static final String[] CHANGED_CLASSES = {
+        "SystemManager.AreaImpl", "SystemManager.StudentsCollectionImpl", "SystemManager.ServicesCollectionImpl",
+        "Services.ServiceAbs", "Services.EatingImpl", "Services.LodgingImpl", "Services.LeisureImpl",
+        "Students.StudentAbs", "Students.BookishImpl", "Students.OutgoingImpl", "Students.ThriftyImpl"
+    };
+
+    // Only the classes of an area may be read back.
+    private static final String ACCEPTED_CLASSES =
+        "Legacy.*;Services.*;Students.*;dataStructures.**;java.lang.*;!*";
+
+    private LegacyAreaReader() {
+    }
+
+    static AreaImpl read(Path file) throws IOException {
+        try (ObjectInputStream in = new LegacyInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.setObjectInputFilter(ObjectInputFilter.Config.createFilter(ACCEPTED_CLASSES));
+            return rebuild((Legacy.AreaImpl) in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidClassException("Not a legacy area: " + e.getMessage());
+        } catch (InvalidMenuPriceException | InvalidRoomPriceException | InvalidTicketPriceException
+                 | InvalidDiscountPriceException | InvalidCapacityException | LodgingIsFullException
+                 | EatingIsFullException | StudentAlreadyExistsException e) {
+            throw new IOException("Inconsistent legacy area", e);
+        }
+    }
+
+    private static AreaImpl rebuild(Legacy.AreaImpl saved) throws InvalidMenuPriceException,
+            InvalidRoomPriceException, InvalidTicketPriceException, InvalidDiscountPriceException,
+            InvalidCapacityException, LodgingIsFullException, EatingIsFullException,
+            StudentAlreadyExistsException {
+        AreaImpl area = new AreaImpl(saved.name, saved.topLat, saved.leftLong, saved.bottomLat, saved.rightLong);
+        Map<ServiceAbs, Service> services = new RobinHoodHashTable<>();
+
+        Iterator<ServiceAbs> it = saved.services.servicesByInsertion.iterator();
+        while (it.hasNext()) {
+            ServiceAbs old = it.next();
+            Service service = area.createService(old.name, old.lat, old.lon, fullPrice(old), old.type, old.value);
+            area.services.register(service);
+            services.put(old, service);
+            rebuildEvaluations(area, old, service);
+        }
+
+        Iterator<ServiceAbs> ranked = new ListsIterator<>(saved.services.rankingByStars);
+        while (ranked.hasNext()) {
+            area.services.rank(services.get(ranked.next()));
+        }
+
+        Map<StudentAbs, Student> students = new RobinHoodHashTable<>();
+        Iterator<List<StudentAbs>> countries = saved.students.studentsByCountry.values();
+        while (countries.hasNext()) {
+            Iterator<StudentAbs> listed = countries.next().iterator();
+            while (listed.hasNext()) {
+                Student student = rebuildStudent(area, listed.next(), services, students);
+                area.students.addStudent(student);
+            }
+        }
+
+        // Removed students may still be listed as occupants of their lodging.
+        it = saved.services.servicesByInsertion.iterator();
+        while (it.hasNext()) {
+            ServiceAbs old = it.next();
+            Service service = services.get(old);
+            if (old instanceof EatingImpl eating) {
+                Iterator<StudentAbs> occupants = eating.occupants.iterator();
+                while (occupants.hasNext()) {
+                    ((Eating) service).addOccupant(rebuildStudent(area, occupants.next(), services, students));
+                }
+            } else if (old instanceof LodgingImpl lodging) {
+                Iterator<StudentAbs> occupants = lodging.occupants.iterator();
+                while (occupants.hasNext()) {
+                    ((Lodging) service).addOccupant(rebuildStudent(area, occupants.next(), services, students));
+                }
+            }
+        }
+        return area;
+    }
+
+    /**
+     * Returns the price a service was created with. A leisure service only kept
+     * its price after the discount, so it gets the lowest ticket price that has it.
+     */
+    private static int fullPrice(ServiceAbs service) {
+        if (!(service instanceof Legacy.LeisureImpl leisure) || leisure.discount == 0) {
+            return service.price;
+        }
+        if (leisure.discount == 100) {
+            return 1;
+        }
+        int price = Math.max(1, service.price * 100 / (100 - leisure.discount));
+        while (price - price * leisure.discount / 100 > service.price && price > 1) {
+            price--;
+        }
+        while (price - price * leisure.discount / 100 < service.price) {
+            price++;
+        }
+        return price;
+    }
+
+    private static void rebuildEvaluations(AreaImpl area, ServiceAbs old, Service service) {
+        Iterator<Evaluation> evaluations = old.evaluations.iterator();
+        // The opening review of every service is recreated by its constructor.
+        evaluations.next();
+        while (evaluations.hasNext()) {
+            Evaluation evaluation = evaluations.next();
+            service.addReview(evaluation.getStars(), evaluation.getDescription());
+            area.services.updateTagIndex(service, evaluation.getDescription());
+        }
+    }
+
+    /**
+     * Returns the student rebuilt from a saved one, rebuilding it the first time.
+     * The student is left out of the occupants of its services, which are rebuilt in order.
+     */
+    private static Student rebuildStudent(AreaImpl area, StudentAbs old, Map<ServiceAbs, Service> services,
+            Map<StudentAbs, Student> students) throws LodgingIsFullException {
+        Student student = students.get(old);
+        if (student != null) {
+            return student;
+        }
+        Lodging home = (Lodging) services.get(old.home);
+        List<Service> visits = new DoublyLinkedList<>();
+        Iterator<ServiceAbs> visited = old.visitedServices.iterator();
+        while (visited.hasNext()) {
+            visits.addLast(services.get(visited.next()));
+        }
+
+        // An outgoing student's history starts with the lodging it was created in.
+        Lodging firstHome = old.type == StudentType.OUTGOING ? (Lodging) visits.removeFirst() : home;
+        student = area.createStudentByType(old.type, old.name, old.country, firstHome);
+        firstHome.removeOccupant(student);
+        student.restoreState(home, services.get(old.current), visits.iterator());
+
+        if (old instanceof ThriftyImpl oldThrifty && student instanceof Thrifty thrifty) {
+            thrifty.updateCheapestLodging((Lodging) services.get(oldThrifty.cheapestLodging));
+            if (oldThrifty.cheapestEating != null) {
+                thrifty.visitEating((Eating) services.get(oldThrifty.cheapestEating));
+            }
+        }
+        students.put(old, student);
+        return student;
+    }
+
+    /**
+     * Reads the classes that changed since into their stand-ins.
+     */
+    private static final class LegacyInputStream extends ObjectInputStream {
+
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            for (String changed : CHANGED_CLASSES) {
+                if (changed.equals(desc.getName())) {
+                    String simpleName = changed.substring(changed.lastIndexOf('.') + 1);
+                    return Class.forName("Legacy." + simpleName, false,
+                        LegacyAreaReader.class.getClassLoader());
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package SystemManager;
+
+import Exceptions.*;
+import Services.ServiceReadOnly;
+import Services.ServiceType;
+import Students.StudentReadOnly;
+import Students.StudentType;
+import dataStructures.DoublyLinkedList;
+import dataStructures.Iterator;
+import dataStructures.TwoWayIterator;
+
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe facade over a {@link SystemManager}, for front ends that serve
+ * several clients at once.
+ * <p>
+ * Calls that only read the system share the lock and run in parallel. Moves of
+ * students also share it, among themselves but not with readers: the system only
+ * runs at once moves that share no student or service, so independent moves run
+ * in parallel. Other calls that change the system hold the lock alone. Iterators
+ * returned by the system are read lazily, so the calls that return one copy it
+ * under the lock, and the copy stays valid after it is released. A command that
+ * reads a lot, such as a long listing, is better run inside
+ * {@link #reading(Consumer)}, whose action works on the guarded system itself:
+ * nothing is copied, and its many calls do not each take the lock again. Unlike
+ * monitors, the lock does not pin the carrier of a virtual thread waiting for it.
+ */
+public class LockingSystemManager implements SystemManager, SharedSystem {
+
+    private final SystemManager system;
+    private final ModeLock lock = new ModeLock();
+
+    /**
+     * @param system The system to guard, which must not be used directly anymore.
+     */
+    public LockingSystemManager(SystemManager system) {
+        this.system = system;
+    }
+
+    /**
+     * Runs an action that only reads the system, while no other thread changes it.
+     * Other actions that only read it may run at the same time.
+     *
+     * @param action The action, given the guarded system, which it must not change.
+     */
+    @Override
+    public void reading(Consumer<SystemManager> action) {
+        lock.lock(ModeLock.READING);
+        try {
+            action.accept(system);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action that only moves students ({@link SystemManager#goToLocation}
+     * and {@link SystemManager#moveStudentHome}) and reads the system, while no
+     * other thread reads or otherwise changes it. Other actions that only move
+     * students may run at the same time, and what the action reads about the
+     * students and services they move may already reflect their moves.
+     *
+     * @param action The action, given the guarded system.
+     */
+    @Override
+    public void moving(Consumer<SystemManager> action) {
+        lock.lock(ModeLock.MOVING);
+        try {
+            action.accept(system);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action that changes the system, while no other thread uses it.
+     *
+     * @param action The action, given the guarded system.
+     */
+    @Override
+    public void writing(Consumer<SystemManager> action) {
+        lock.lock(ModeLock.WRITING);
+        try {
+            action.accept(system);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void createArea(String name, long topLat, long leftLong, long bottomLat, long rightLong)
+            throws InvalidBoundsException, BoundsAlreadyExistsException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.createArea(name, topLat, leftLong, bottomLat, rightLong);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void loadArea(String name) throws BoundsNotFoundException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.loadArea(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void saveArea() throws NoAreaLoadedException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.saveArea();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void closeArea() {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.closeArea();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.shutdown();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public AreaReadOnly getCurrentArea() throws NoAreaLoadedException {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getCurrentArea();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getCurrentAreaName() throws NoAreaLoadedException {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getCurrentAreaName();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean equalBounds(long topLat, long leftLong, long bottomLat, long rightLong) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.equalBounds(topLat, leftLong, bottomLat, rightLong);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addService(ServiceType type, String name, long lat, long lon, int price, int value)
+            throws InvalidServiceTypeException, InvalidLocationException,
+            InvalidBoundsException, SystemBoundsNotDefinedException,
+            InvalidMenuPriceException, InvalidRoomPriceException,
+            InvalidTicketPriceException, InvalidDiscountPriceException,
+            InvalidCapacityException, ServiceAlreadyExistsException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.addService(type, name, lat, lon, price, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends ServiceReadOnly> listServices() throws NoServicesException {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.listServices());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addReviewToService(String serviceName, int rating, String comment)
+            throws ServiceNotFoundException, InvalidStarsException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.addReviewToService(serviceName, rating, comment);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends ServiceReadOnly> getRankedServices() {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.getRankedServices());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceReadOnly getServiceByName(String name) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getServiceByName(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addStudent(StudentType type, String name, String country, String lodgingName)
+            throws SystemBoundsNotDefinedException, InvalidStudentTypeException,
+            LodgingNotFoundException, StudentAlreadyExistsException, LodgingIsFullException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.addStudent(type, name, country, lodgingName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends StudentReadOnly> listStudents(String filter) {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.listStudents(filter));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends StudentReadOnly> listStudents(int offset, int limit) {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.listStudents(offset, limit));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeStudent(String name) throws StudentNotFoundException {
+        lock.lock(ModeLock.WRITING);
+        try {
+            system.removeStudent(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentReadOnly getStudentByName(String name) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getStudentByName(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void goToLocation(String studentName, String serviceName)
+            throws StudentNotFoundException, ServiceNotFoundException,
+            AlreadyThereException, EatingIsFullException, NotValidServiceException {
+        lock.lock(ModeLock.MOVING);
+        try {
+            system.goToLocation(studentName, serviceName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void moveStudentHome(String studentName, String lodgingName)
+            throws StudentNotFoundException, LodgingNotFoundException,
+            LodgingIsFullException, StudentIsThriftyException, AlreadyStudentHomeException {
+        lock.lock(ModeLock.MOVING);
+        try {
+            system.moveStudentHome(studentName, lodgingName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceReadOnly whereIsStudent(String studentName) throws StudentNotFoundException {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.whereIsStudent(studentName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isStudentDistracted(String studentName, String serviceName) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.isStudentDistracted(studentName, serviceName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends ServiceReadOnly> listVisitedLocations(String studentName)
+            throws StudentNotFoundException, StudentIsThriftyException,
+            NoVisitedLocationsException {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.listVisitedLocations(studentName));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TwoWayIterator<? extends StudentReadOnly> listUsersInService(String order, String serviceName)
+            throws InvalidOrderException, ServiceNotFoundException,
+            ServiceDoesNotControlEntryExitException {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.listUsersInService(order, serviceName), "<".equals(order));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends ServiceReadOnly> listServicesWithTag(String tag) {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.listServicesWithTag(tag));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<? extends ServiceReadOnly> getRankedServicesByTypeAndStars(ServiceType type, int stars, String studentName)
+            throws InvalidStarsException, StudentNotFoundException,
+            NoTypeServicesWithStarsException, InvalidServiceTypeException, NoServicesOfThisTypeException {
+        lock.lock(ModeLock.READING);
+        try {
+            return copyOf(system.getRankedServicesByTypeAndStars(type, stars, studentName));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceReadOnly findRelevantServiceForStudent(String studentName, ServiceType serviceType)
+            throws StudentNotFoundException, InvalidServiceTypeException, NoServicesOfThisTypeException {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.findRelevantServiceForStudent(studentName, serviceType);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getName(AreaReadOnly area) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getName(area);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getServiceName(ServiceReadOnly service) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getServiceName(service);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceType getServiceType(ServiceReadOnly service) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getServiceType(service);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getServiceLatitude(ServiceReadOnly service) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getServiceLatitude(service);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getServiceLongitude(ServiceReadOnly service) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getServiceLongitude(service);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getStudentName(StudentReadOnly student) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getStudentName(student);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public StudentType getStudentType(StudentReadOnly student) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getStudentType(student);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ServiceReadOnly getStudentCurrentLocation(StudentReadOnly student) {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.getStudentCurrentLocation(student);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long manhattanDistance(long lat1, long lon1, long lat2, long lon2) {
+        return system.manhattanDistance(lat1, lon1, lat2, lon2);
+    }
+
+    @Override
+    public boolean hasAreaLoaded() {
+        lock.lock(ModeLock.READING);
+        try {
+            return system.hasAreaLoaded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies the elements left in an iterator of the system, so that they can be
+     * iterated after the lock is released.
+     */
+    private static <E> Iterator<E> copyOf(Iterator<? extends E> it) {
+        DoublyLinkedList<E> copy = new DoublyLinkedList<>();
+        while (it.hasNext()) {
+            copy.addLast(it.next());
+        }
+        return copy.iterator();
+    }
+
+    /**
+     * Copies every element of a two-way iterator of the system, leaving the copy
+     * at its start, or at its end for iterators meant to be read backwards.
+     */
+    private static <E> TwoWayIterator<E> copyOf(TwoWayIterator<? extends E> it, boolean atEnd) {
+        DoublyLinkedList<E> copy = new DoublyLinkedList<>();
+        it.rewind();
+        while (it.hasNext()) {
+            copy.addLast(it.next());
+        }
+        TwoWayIterator<E> copied = copy.twoWayiterator();
+        if (atEnd) {
+            copied.fullForward();
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,76 @@
+package SystemManager;
+
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/**
+ * Lock with three modes: reading, moving and writing.
+ * <p>
+ * Any number of threads may hold it for reading at once, and any number for
+ * moving, but never readers and movers together; a writer holds it alone.
+ * Threads get it in the order they asked for it, so a steady stream of one mode
+ * does not starve the others. It is not reentrant: a thread holding it must not
+ * ask for it again.
+ */
+final class ModeLock {
+
+    static final int READING = 0;
+    static final int MOVING = 1;
+    static final int WRITING = 2;
+
+    private final Sync sync = new Sync();
+
+    /**
+     * Waits until the lock can be held in the given mode, and holds it.
+     *
+     * @param mode {@link #READING}, {@link #MOVING} or {@link #WRITING}.
+     */
+    void lock(int mode) {
+        sync.acquireShared(mode);
+    }
+
+    /**
+     * Releases the lock held by the calling thread.
+     */
+    void unlock() {
+        sync.releaseShared(1);
+    }
+
+    /**
+     * The state keeps the mode in its two highest bits and the number of holders
+     * in the others.
+     */
+    private static final class Sync extends AbstractQueuedSynchronizer {
+
+        private static final int MODE_SHIFT = 30;
+        private static final int HOLDERS = (1 << MODE_SHIFT) - 1;
+
+        @Override
+        protected int tryAcquireShared(int mode) {
+            if (hasQueuedPredecessors()) {
+                return -1;
+            }
+            while (true) {
+                int state = getState();
+                int holders = state & HOLDERS;
+                if (holders > 0 && (mode == WRITING || state >>> MODE_SHIFT != mode)) {
+                    return -1;
+                }
+                if (compareAndSetState(state, mode << MODE_SHIFT | holders + 1)) {
+                    // Threads waiting behind a writer cannot get the lock before it leaves.
+                    return mode == WRITING ? 0 : 1;
+                }
+            }
+        }
+
+        @Override
+        protected boolean tryReleaseShared(int ignored) {
+            while (true) {
+                int state = getState();
+                int next = state - 1;
+                if (compareAndSetState(state, next)) {
+                    return (next & HOLDERS) == 0;
+                }
+            }
+        }
+    }
+}
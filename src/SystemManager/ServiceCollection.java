@@ -35,6 +35,16 @@ public interface ServiceCollection {
 
     void updateRankingByStars(Service service, int oldStars);
 
+    /**
+     * Indexes the words of a new review so that the service can be found by tag.
+     * This method should be called whenever a review is added to a service.
+     * Words are separated by whitespace and compared in lower case.
+     *
+     * @param service The service that received the review.
+     * @param comment The review comment.
+     */
+    void updateTagIndex(Service service, String comment);
+
     /**
      * Finds and returns a service by its name.
      * The search is typically case-insensitive.
@@ -85,15 +95,47 @@ public interface ServiceCollection {
      */
     Iterator<Service> getServicesByTypeAndStars(ServiceType type, int stars);
 
+    /**
+     * Gets the services of a specific type and star rating that are closest
+     * (by Manhattan distance) to the given location. Ties are returned in the
+     * order the services reached that star rating.
+     *
+     * @param type The service type to filter by.
+     * @param stars The star rating to filter by.
+     * @param lat The latitude of the reference location.
+     * @param lon The longitude of the reference location.
+     * @return An {@link Iterator} of the closest {@link Service}s.
+     */
+    Iterator<Service> getClosestServicesByTypeAndStars(ServiceType type, int stars, long lat, long lon);
+
     /**
      * Gets an iterator over all services that have the specified tag.
-     * Filters services by checking if they have an evaluation containing the tag.
+     * Services are looked up in the word index kept by {@link #updateTagIndex}.
      *
      * @param tag The tag to search for (case-insensitive).
      * @return An {@link Iterator} of services that have this tag, in insertion order.
      */
     Iterator<Service> getServicesByTag(String tag);
 
+    /**
+     * Gets the best-rated service of a specific type. Among the services with
+     * the highest star rating, the one that reached that rating first is chosen.
+     *
+     * @param type The service type to filter by.
+     * @return The best-rated {@link Service} of that type, or null if there is none.
+     */
+    Service getBestRatedServiceOfType(ServiceType type);
+
+    /**
+     * Gets the cheapest service of a specific type. Ties on price are broken as in
+     * {@link #getServicesByTypeOrderedByStars(ServiceType)}: higher star rating first,
+     * then the service that reached that rating first.
+     *
+     * @param type The service type to filter by.
+     * @return The cheapest {@link Service} of that type, or null if there is none.
+     */
+    Service getCheapestServiceOfType(ServiceType type);
+
     /**
      * Gets an iterator over services of a specific type ordered by star rating.
      *
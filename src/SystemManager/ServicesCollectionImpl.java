@@ -11,21 +11,48 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
 
     private final List<Service> servicesByInsertion;
     private final Map<String, Service> servicesByName;
-    private final List<Service>[] rankingByStars;
-    private final Map<ServiceType, List<Service>[]> servicesByTypeAndStars;
+    private final PositionalList<Service>[] rankingByStars;
+    private final Map<ServiceType, PositionalList<Service>[]> servicesByTypeAndStars;
+    private final Map<ServiceType, SpatialIndex<Service>[]> locationsByTypeAndStars;
+    private final Map<ServiceType, SortedMap<Integer, PositionalList<Service>>[]> pricesByTypeAndStars;
+    private final Map<String, Integer> registrationOrder;
+    private final Map<String, SortedMap<Integer, Service>> servicesByTag;
 
     public ServicesCollectionImpl() {
         this.servicesByInsertion = new DoublyLinkedList<>();
-        this.servicesByName = new ClosedHashTable<>();
+        this.servicesByName = new FlatHashTable<>();
         this.rankingByStars = createStarsArray();
         this.servicesByTypeAndStars = new SepChainHashTable<>();
+        this.locationsByTypeAndStars = new SepChainHashTable<>();
+        this.pricesByTypeAndStars = new SepChainHashTable<>();
+        this.registrationOrder = new RobinHoodHashTable<>();
+        this.servicesByTag = new SepChainHashTable<>();
     }
 
-    private List<Service>[] createStarsArray() {
+    private PositionalList<Service>[] createStarsArray() {
         @SuppressWarnings("unchecked")
-        List<Service>[] array = (List<Service>[]) new List[5];
+        PositionalList<Service>[] array = (PositionalList<Service>[]) new PositionalList[5];
         for (int i = 0; i < 5; i++) {
-            array[i] = new DoublyLinkedList<>();
+            array[i] = new PositionalDoublyLinkedList<>();
+        }
+        return array;
+    }
+
+    private SpatialIndex<Service>[] createLocationsArray() {
+        @SuppressWarnings("unchecked")
+        SpatialIndex<Service>[] array = (SpatialIndex<Service>[]) new SpatialIndex[5];
+        for (int i = 0; i < 5; i++) {
+            array[i] = new GridSpatialIndex<>();
+        }
+        return array;
+    }
+
+    private SortedMap<Integer, PositionalList<Service>>[] createPricesArray() {
+        @SuppressWarnings("unchecked")
+        SortedMap<Integer, PositionalList<Service>>[] array =
+            (SortedMap<Integer, PositionalList<Service>>[]) new SortedMap[5];
+        for (int i = 0; i < 5; i++) {
+            array[i] = new AVLSortedMap<>();
         }
         return array;
     }
@@ -35,8 +62,25 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
         if (contains(service.getName())) {
             throw new ServiceAlreadyExistsException();
         }
+        register(service);
+        rank(service);
+    }
+
+    /**
+     * Registers the service by name and insertion order, without ranking it.
+     * Snapshots register every service first and rank them afterwards,
+     * so that the star lists keep the order they were saved in.
+     */
+    void register(Service service) {
+        registrationOrder.put(service.getName().toLowerCase(), servicesByInsertion.size());
         servicesByInsertion.addLast(service);
         servicesByName.put(service.getName().toLowerCase(),service);
+    }
+
+    /**
+     * Appends a registered service to the star lists and indexes of its current rating.
+     */
+    void rank(Service service) {
         addServiceToRankingByStars(service);
         addServiceToTypeStarsMap(service);
     }
@@ -49,30 +93,71 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
             return;
         }
 
-        removeServiceFromList(rankingByStars[oldStars - 1], service);
+        rankingByStars[oldStars - 1].remove(service.getRankingPosition());
         addServiceToRankingByStars(service);
 
         ServiceType type = service.getType();
-        List<Service>[] starsArray = servicesByTypeAndStars.get(type);
+        PositionalList<Service>[] starsArray = servicesByTypeAndStars.get(type);
 
         if (starsArray != null) {
-            removeServiceFromList(starsArray[oldStars - 1], service);
+            starsArray[oldStars - 1].remove(service.getTypeRankingPosition());
+        }
+        SpatialIndex<Service>[] locationsArray = locationsByTypeAndStars.get(type);
+        if (locationsArray != null) {
+            locationsArray[oldStars - 1].remove(service, service.getLatitude(), service.getLongitude());
+        }
+        SortedMap<Integer, PositionalList<Service>>[] pricesArray = pricesByTypeAndStars.get(type);
+        if (pricesArray != null) {
+            SortedMap<Integer, PositionalList<Service>> prices = pricesArray[oldStars - 1];
+            PositionalList<Service> samePrice = prices.get(service.getPrice());
+            samePrice.remove(service.getPricePosition());
+            if (samePrice.isEmpty()) {
+                prices.remove(service.getPrice());
+            }
         }
         addServiceToTypeStarsMap(service);
     }
 
-    private void removeServiceFromList(List<Service> list, Service service) {
-        if (list != null) {
-            int index = list.indexOf(service);
-            if (index != -1) {
-                list.remove(index);
+    @Override
+    public void updateTagIndex(Service service, String comment) {
+        String text = comment.toLowerCase();
+        Integer order = registrationOrder.get(service.getName().toLowerCase());
+        int n = text.length();
+        int i = 0;
+
+        while (i < n) {
+            while (i < n && isWhitespace(text.charAt(i))) {
+                i++;
             }
+            int start = i;
+            while (i < n && !isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                addServiceToTag(text.substring(start, i), order, service);
+            }
+        }
+    }
+
+    private void addServiceToTag(String word, Integer order, Service service) {
+        SortedMap<Integer, Service> posting = servicesByTag.get(word);
+        if (posting == null) {
+            posting = new AVLSortedMap<>();
+            servicesByTag.put(word, posting);
+        }
+        if (posting.get(order) == null) {
+            posting.put(order, service);
         }
     }
 
+    private boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
     private void addServiceToRankingByStars(Service service) {
         int stars = service.getAvgStar();
         rankingByStars[stars - 1].addLast(service);
+        service.setRankingPosition(rankingByStars[stars - 1].lastPosition());
 
     }
 
@@ -80,13 +165,34 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
         ServiceType type = service.getType();
         int stars = service.getAvgStar();
 
-        List<Service>[] starsArray = servicesByTypeAndStars.get(type);
+        PositionalList<Service>[] starsArray = servicesByTypeAndStars.get(type);
         if (starsArray == null) {
             starsArray = createStarsArray();
             servicesByTypeAndStars.put(type, starsArray);
         }
 
         starsArray[stars - 1].addLast(service);
+        service.setTypeRankingPosition(starsArray[stars - 1].lastPosition());
+
+        SpatialIndex<Service>[] locationsArray = locationsByTypeAndStars.get(type);
+        if (locationsArray == null) {
+            locationsArray = createLocationsArray();
+            locationsByTypeAndStars.put(type, locationsArray);
+        }
+        locationsArray[stars - 1].insert(service, service.getLatitude(), service.getLongitude());
+
+        SortedMap<Integer, PositionalList<Service>>[] pricesArray = pricesByTypeAndStars.get(type);
+        if (pricesArray == null) {
+            pricesArray = createPricesArray();
+            pricesByTypeAndStars.put(type, pricesArray);
+        }
+        PositionalList<Service> samePrice = pricesArray[stars - 1].get(service.getPrice());
+        if (samePrice == null) {
+            samePrice = new PositionalDoublyLinkedList<>();
+            pricesArray[stars - 1].put(service.getPrice(), samePrice);
+        }
+        samePrice.addLast(service);
+        service.setPricePosition(samePrice.lastPosition());
     }
 
     @Override
@@ -116,14 +222,14 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
 
     @Override
     public Iterator<Service> getServicesByTypeOrderedByStars(ServiceType type) {
-        List<Service>[] starsArray = servicesByTypeAndStars.get(type);
+        PositionalList<Service>[] starsArray = servicesByTypeAndStars.get(type);
 
         return new ListsIterator<>(starsArray);
     }
 
     @Override
     public boolean hasServicesOfType(ServiceType type) {
-        List<Service>[] starsArray = servicesByTypeAndStars.get(type);
+        PositionalList<Service>[] starsArray = servicesByTypeAndStars.get(type);
         if (starsArray == null) {
             return false;
         }
@@ -137,7 +243,7 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
 
     @Override
     public Iterator<Service> getServicesByTypeAndStars(ServiceType type, int stars) {
-        List<Service>[] starsArray = servicesByTypeAndStars.get(type);
+        PositionalList<Service>[] starsArray = servicesByTypeAndStars.get(type);
 
         if (starsArray != null && starsArray[stars - 1] != null) {
             return starsArray[stars - 1].iterator();
@@ -146,12 +252,103 @@ public class ServicesCollectionImpl implements ServiceCollection, Serializable {
         return new DoublyLinkedList<Service>().iterator();
     }
 
+    @Override
+    public Iterator<Service> getClosestServicesByTypeAndStars(ServiceType type, int stars, long lat, long lon) {
+        SpatialIndex<Service>[] locationsArray = locationsByTypeAndStars.get(type);
+
+        if (locationsArray != null) {
+            return locationsArray[stars - 1].nearest(lat, lon);
+        }
+
+        return new DoublyLinkedList<Service>().iterator();
+    }
+
     @Override
     public Iterator<Service> getServicesByTag(String tag) {
-        return new FilterIterator<>(servicesByInsertion.iterator(),
-            service -> service.hasEvaluationWithTag(tag));
+        String text = tag.toLowerCase().trim();
+        int wordEnd = 0;
+        while (wordEnd < text.length() && !isWhitespace(text.charAt(wordEnd))) {
+            wordEnd++;
+        }
+
+        SortedMap<Integer, Service> posting = servicesByTag.get(text.substring(0, wordEnd));
+        if (posting == null) {
+            return new DoublyLinkedList<Service>().iterator();
+        }
+        if (wordEnd == text.length()) {
+            return posting.values();
+        }
+        // Multi-word tag: the first word narrows the candidates, the full phrase is checked on them only.
+        return new FilterIterator<>(posting.values(),
+            service -> service.hasEvaluationWithTag(text));
+    }
+
+    @Override
+    public Service getBestRatedServiceOfType(ServiceType type) {
+        PositionalList<Service>[] starsArray = servicesByTypeAndStars.get(type);
+        if (starsArray == null) {
+            return null;
+        }
+        for (int stars = 5; stars >= 1; stars--) {
+            if (!starsArray[stars - 1].isEmpty()) {
+                return starsArray[stars - 1].getFirst();
+            }
+        }
+        return null;
     }
 
+    @Override
+    public Service getCheapestServiceOfType(ServiceType type) {
+        SortedMap<Integer, PositionalList<Service>>[] pricesArray = pricesByTypeAndStars.get(type);
+        if (pricesArray == null) {
+            return null;
+        }
+        // Higher ratings are visited first, so only a strictly lower price replaces the candidate.
+        Map.Entry<Integer, PositionalList<Service>> cheapest = null;
+        for (int stars = 5; stars >= 1; stars--) {
+            SortedMap<Integer, PositionalList<Service>> prices = pricesArray[stars - 1];
+            if (!prices.isEmpty()) {
+                Map.Entry<Integer, PositionalList<Service>> entry = prices.minEntry();
+                if (cheapest == null || entry.key() < cheapest.key()) {
+                    cheapest = entry;
+                }
+            }
+        }
+        return cheapest == null ? null : cheapest.value().getFirst();
+    }
 
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        for (PositionalList<Service> list : rankingByStars) {
+            Iterator<Position<Service>> it = list.positions();
+            while (it.hasNext()) {
+                Position<Service> position = it.next();
+                position.getElement().setRankingPosition(position);
+            }
+        }
+        Iterator<PositionalList<Service>[]> arrays = servicesByTypeAndStars.values();
+        while (arrays.hasNext()) {
+            for (PositionalList<Service> list : arrays.next()) {
+                Iterator<Position<Service>> it = list.positions();
+                while (it.hasNext()) {
+                    Position<Service> position = it.next();
+                    position.getElement().setTypeRankingPosition(position);
+                }
+            }
+        }
+        Iterator<SortedMap<Integer, PositionalList<Service>>[]> pricesArrays = pricesByTypeAndStars.values();
+        while (pricesArrays.hasNext()) {
+            for (SortedMap<Integer, PositionalList<Service>> prices : pricesArrays.next()) {
+                Iterator<PositionalList<Service>> lists = prices.values();
+                while (lists.hasNext()) {
+                    Iterator<Position<Service>> it = lists.next().positions();
+                    while (it.hasNext()) {
+                        Position<Service> position = it.next();
+                        position.getElement().setPricePosition(position);
+                    }
+                }
+            }
+        }
+    }
 }
-
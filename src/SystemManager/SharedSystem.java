@@ -0,0 +1,61 @@
+package SystemManager;
+
+import java.util.function.Consumer;
+
+/**
+ * A system shared by the threads of a server, that serve many clients at once.
+ * <p>
+ * Every command runs as an action on the system handed to it, which it must not
+ * keep. Commands are strictly ordered: once a command that changes the system
+ * returns, every action started afterwards sees the change.
+ */
+public interface SharedSystem {
+
+    /**
+     * Kind of shared system owned by a single writer thread.
+     */
+    String EVENT_LOOP = "event-loop";
+
+    /**
+     * Creates a shared system over a new {@link SystemManagerImpl}.
+     *
+     * @param kind {@link #EVENT_LOOP} for an {@link EventLoopSystemManager},
+     *             anything else, or null, for a {@link LockingSystemManager}.
+     * @return The new shared system.
+     */
+    static SharedSystem create(String kind) {
+        if (EVENT_LOOP.equals(kind)) {
+            return new EventLoopSystemManager(new SystemManagerImpl());
+        }
+        return new LockingSystemManager(new SystemManagerImpl());
+    }
+
+    /**
+     * Runs an action that only reads the system. Actions that only read it may
+     * run at the same time.
+     *
+     * @param action The action, given a system that it must not change.
+     */
+    void reading(Consumer<SystemManager> action);
+
+    /**
+     * Runs an action that only moves students ({@link SystemManager#goToLocation}
+     * and {@link SystemManager#moveStudentHome}) and reads the system.
+     *
+     * @param action The action, given the system.
+     */
+    void moving(Consumer<SystemManager> action);
+
+    /**
+     * Runs an action that changes the system.
+     *
+     * @param action The action, given the system.
+     */
+    void writing(Consumer<SystemManager> action);
+
+    /**
+     * Unloads the current area and waits until every area is saved.
+     * The system must not be used afterwards.
+     */
+    void shutdown();
+}
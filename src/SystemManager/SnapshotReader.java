@@ -0,0 +1,102 @@
+package SystemManager;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered reader of the primitive values written by {@link SnapshotWriter}.
+ */
+final class SnapshotReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    // Bytes taken from the channel so far.
+    private long consumed;
+
+    SnapshotReader(Path file) throws IOException {
+        this(FileChannel.open(file, StandardOpenOption.READ), ByteBuffer.allocateDirect(BUFFER_SIZE));
+    }
+
+    /**
+     * Reads from a channel that is not a file, through a heap buffer.
+     */
+    SnapshotReader(ReadableByteChannel channel) {
+        this(channel, ByteBuffer.allocate(BUFFER_SIZE));
+    }
+
+    private SnapshotReader(ReadableByteChannel channel, ByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.buffer.limit(0);
+    }
+
+    int readByte() throws IOException {
+        ensureAvailable(Byte.BYTES);
+        return buffer.get();
+    }
+
+    boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    int readInt() throws IOException {
+        ensureAvailable(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    long readLong() throws IOException {
+        ensureAvailable(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    String readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("Negative string length");
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            ensureAvailable(1);
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     */
+    long position() {
+        return consumed - buffer.remaining();
+    }
+
+    private void ensureAvailable(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            consumed += read;
+        }
+        buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,85 @@
+package SystemManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by many objects, each object guarded by the lock of
+ * its stripe. Objects locked together are always locked in increasing order of
+ * their stripes, so threads locking sets that overlap never wait for each other
+ * in a cycle.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * @param count The number of stripes, rounded up to a power of two.
+     */
+    StripedLocks(int count) {
+        int size = Integer.highestOneBit(Math.max(1, count - 1)) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks the stripes of the given objects, each stripe once, in increasing
+     * order. Null objects are skipped.
+     *
+     * @return The stripes held, to be unlocked when done.
+     */
+    Held lock(Object... objects) {
+        int[] held = new int[objects.length];
+        int count = 0;
+        for (Object object : objects) {
+            if (object == null) {
+                continue;
+            }
+            int stripe = stripeOf(object);
+            int i = count;
+            while (i > 0 && held[i - 1] > stripe) {
+                i--;
+            }
+            if (i > 0 && held[i - 1] == stripe) {
+                continue;
+            }
+            System.arraycopy(held, i, held, i + 1, count - i);
+            held[i] = stripe;
+            count++;
+        }
+        for (int i = 0; i < count; i++) {
+            stripes[held[i]].lock();
+        }
+        return new Held(held, count);
+    }
+
+    private int stripeOf(Object object) {
+        int h = System.identityHashCode(object);
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * Stripes held together by one thread.
+     */
+    final class Held implements AutoCloseable {
+
+        private final int[] held;
+        private final int count;
+
+        private Held(int[] held, int count) {
+            this.held = held;
+            this.count = count;
+        }
+
+        /**
+         * Unlocks the stripes, in the reverse order they were locked.
+         */
+        @Override
+        public void close() {
+            for (int i = count - 1; i >= 0; i--) {
+                stripes[held[i]].unlock();
+            }
+        }
+    }
+}
@@ -53,6 +53,17 @@ public interface StudentCollection  {
      */
     Iterator<Student> listAllStudents();
 
+    /**
+     * Gets an iterator over a page of the students in the collection,
+     * sorted alphabetically by name, found without going through the
+     * students before it.
+     *
+     * @param offset Number of students to skip, not negative.
+     * @param limit  Most students to list, not negative.
+     * @return A sorted {@link Iterator} of the {@link Student}s of the page.
+     */
+    Iterator<Student> listStudentsPage(int offset, int limit);
+
     /**
      * Gets an iterator over all students from a specific country,
      * in their original order of registration (insertion order).
@@ -7,7 +7,7 @@ import java.io.*;
 
 public class StudentsCollectionImpl implements StudentCollection, Serializable {
 
-    private final SortedMap<String, Student> studentsByName;
+    private final AVLSortedMap<String, Student> studentsByName;
     private final Map<String, List<Student>> studentsByCountry;
 
     public StudentsCollectionImpl() {
@@ -60,6 +60,13 @@ public class StudentsCollectionImpl implements StudentCollection, Serializable {
         }
     }
 
+    /**
+     * Returns the students of each country, in the order they were added.
+     */
+    Iterator<List<Student>> listCountryLists() {
+        return studentsByCountry.values();
+    }
+
     @Override
     public Student findByName(String name) {
         return studentsByName.get(name.toLowerCase());
@@ -70,6 +77,12 @@ public class StudentsCollectionImpl implements StudentCollection, Serializable {
         return studentsByName.values();
     }
 
+    @Override
+    public Iterator<Student> listStudentsPage(int offset, int limit) {
+        int first = Math.min(offset, studentsByName.size());
+        return new BoundedIterator<>(studentsByName.values(first), limit);
+    }
+
     @Override
     public Iterator<Student> listStudentsByCountry(String country) {
         List<Student> list = studentsByCountry.get(country.toLowerCase());
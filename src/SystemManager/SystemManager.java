@@ -25,7 +25,8 @@ public interface SystemManager {
 
     /**
      * Creates a new geographic area with the specified boundaries.
-     * If an area is currently loaded, it is saved first.
+     * If an area is currently loaded, it is unloaded and kept in memory; the least
+     * recently used areas beyond the cache size are saved in the background.
      *
      * @param name      The name for the new area.
      * @param topLat    The top latitude of the bounding box.
@@ -41,7 +42,11 @@ public interface SystemManager {
 
     /**
      * Loads a previously saved area from persistent storage.
-     * If an area is currently loaded, it is saved first.
+     * If an area is currently loaded, it is unloaded and kept in memory; the least
+     * recently used areas beyond the cache size are saved in the background.
+     * An area still kept in memory is made current again without reading it.
+     * Otherwise only the name and bounds of the area are read here; the rest of it
+     * is read the first time a command needs it.
      *
      * @param name The name of the area to load.
      * @throws BoundsNotFoundException if no saved area with the given name is found.
@@ -55,6 +60,20 @@ public interface SystemManager {
      */
     void saveArea() throws NoAreaLoadedException;
 
+    /**
+     * Unloads the currently loaded area, if any, and saves it and every area
+     * kept in memory in the background.
+     * The program does not end before the save is written.
+     */
+    void closeArea();
+
+    /**
+     * Unloads the currently loaded area, like {@link #closeArea()}, and waits
+     * until it and every area kept in memory are saved.
+     * The system must not be used afterwards.
+     */
+    void shutdown();
+
     /**
      * Gets the currently active area.
      *
@@ -63,6 +82,16 @@ public interface SystemManager {
      */
     AreaReadOnly getCurrentArea() throws NoAreaLoadedException;
 
+    /**
+     * Gets the name of the currently active area.
+     * Unlike {@link #getCurrentArea()}, this does not read an area that was
+     * loaded but not used yet.
+     *
+     * @return The name of the currently loaded area.
+     * @throws NoAreaLoadedException if no area is currently loaded.
+     */
+    String getCurrentAreaName() throws NoAreaLoadedException;
+
     /**
      * Checks if the given bounds match the currently loaded area's bounds.
      *
@@ -171,6 +200,18 @@ public interface SystemManager {
      */
     Iterator<? extends StudentReadOnly> listStudents(String filter);
 
+    /**
+     * Lists a page of all the students, alphabetically. The page is found
+     * without going through the students before it, so any page of a large
+     * area is listed in time proportional to its own size.
+     *
+     * @param offset Number of students to skip, not negative.
+     * @param limit  Most students to list, not negative.
+     * @return An {@link Iterator} of the {@link Student}s of the page, empty
+     *         past the last student.
+     */
+    Iterator<? extends StudentReadOnly> listStudents(int offset, int limit);
+
     /**
      * Removes a student from the system.
      *
@@ -5,14 +5,113 @@ import Services.*;
 import Students.*;
 import dataStructures.*;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
 import static Students.StudentType.*;
 
 public class SystemManagerImpl implements SystemManager {
 
+    /**
+     * Number of areas kept in memory besides the current one.
+     */
+    public static final int DEFAULT_CACHED_AREAS = 3;
+
+    private static final Charset FILE_NAME_CHARSET = Charset.forName(
+        System.getProperty("native.encoding"), Charset.defaultCharset());
+
     Area currentArea;
 
+    /**
+     * Name, bounds and file of the current area while it has not been read yet.
+     * Loading reads this header and checks the snapshot against its checksum;
+     * the area itself is read on first use. A snapshot without a checksum is
+     * read when it is loaded instead.
+     * Volatile, so that queries running in parallel that see it cleared also see
+     * the area read.
+     */
+    private volatile AreaSnapshot.Header unreadArea;
+
+    /**
+     * Held while the current area is read, as queries running in parallel may all
+     * be the first to use it.
+     */
+    private final ReentrantLock readingArea;
+
+    /**
+     * Changes made to the current area since its last snapshot.
+     */
+    private AreaJournal journal;
+
+    /**
+     * Areas that were current recently, saved only once they are evicted.
+     */
+    private final AreaCache cachedAreas;
+
+    private final AreaSaver saver;
+
+    /**
+     * Changes made to the system so far, read by an {@link EventLoopSystemManager},
+     * which makes them all on one thread.
+     */
+    private long changes;
+
     public SystemManagerImpl() {
+        this(DEFAULT_CACHED_AREAS);
+    }
+
+    /**
+     * @param cachedAreas Number of areas kept in memory besides the current one.
+     */
+    public SystemManagerImpl(int cachedAreas) {
         this.currentArea = null;
+        this.unreadArea = null;
+        this.journal = null;
+        this.cachedAreas = new AreaCache(cachedAreas);
+        this.saver = new AreaSaver();
+        this.readingArea = new ReentrantLock();
+    }
+
+    /**
+     * System that only answers queries on the given area, with no files behind it.
+     *
+     * @param area The area, or null for a system with no area loaded.
+     */
+    private SystemManagerImpl(AreaImpl area) {
+        this.currentArea = area;
+        this.unreadArea = null;
+        this.journal = null;
+        this.cachedAreas = null;
+        this.saver = null;
+        this.readingArea = new ReentrantLock();
+    }
+
+    /**
+     * Returns a system that answers queries on a copy of the current area, which
+     * later changes of this one do not reach. It must not be changed. The copy
+     * takes time in the size of the area, see {@link AreaSnapshot#copy(AreaImpl)}.
+     */
+    SystemManagerImpl snapshot() {
+        if (!hasAreaLoaded()) {
+            return new SystemManagerImpl(null);
+        }
+        try {
+            return new SystemManagerImpl(AreaSnapshot.copy((AreaImpl) area()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of changes made to the system so far. A change is
+     * counted when it is recorded in the journal, before it is applied, since
+     * some calls change the area before they fail (a full eating service, a
+     * repeated student). Calls that fail before that, or that only read the
+     * system, change nothing.
+     */
+    long changes() {
+        return changes;
     }
 
     @Override
@@ -21,45 +120,116 @@ public class SystemManagerImpl implements SystemManager {
         if (!areBoundsValid(topLat, leftLong, bottomLat, rightLong)) {
             throw new InvalidBoundsException();
         }
-        if ((currentArea != null && (currentArea.getName().equalsIgnoreCase(name)) || equalBounds(topLat, leftLong, bottomLat, rightLong))) {
+        if ((hasAreaLoaded() && (areaName().equalsIgnoreCase(name)) || equalBounds(topLat, leftLong, bottomLat, rightLong))) {
             throw new BoundsAlreadyExistsException();
         }
-        if (currentArea != null) {
-            saveCurrentAreaToFile(currentArea);
-        }
+        cacheCurrentArea();
+        // The new area replaces the one saved under the same file.
+        cachedAreas.remove(getAreaFileName(name));
+        saver.awaitSaved(getAreaFile(name));
         currentArea = new AreaImpl(name, topLat, leftLong, bottomLat, rightLong);
+        journal = AreaJournal.create(getJournalFile(name));
+        changes++;
     }
 
     @Override
     public void loadArea(String name) throws BoundsNotFoundException {
-        if (currentArea != null) {
-            saveCurrentAreaToFile(currentArea);
+        String key = getAreaFileName(name);
+        if (hasAreaLoaded() && getAreaFileName(areaName()).equals(key)) {
+            return;
+        }
+        AreaCache.Entry cached = cachedAreas.remove(key);
+        cacheCurrentArea();
+        if (cached != null) {
+            currentArea = cached.area();
+            unreadArea = cached.unreadArea();
+            journal = cached.journal();
+            changes++;
+            return;
+        }
+        saver.awaitSaved(getAreaFile(name));
+
+        unreadArea = loadAreaHeaderFromFile(name);
+        if (unreadArea == null) {
+            loadLegacyArea(name);
+        } else {
+            journal = AreaJournal.open(getJournalFile(name), unreadArea.snapshotId(), unreadArea.bytes());
+            if (!unreadArea.checksummed()) {
+                readUncheckedArea();
+            }
+        }
+        changes++;
+    }
+
+    /**
+     * Loads an area saved by the versions that wrote it with Java serialization,
+     * to "name.ser", and saves it again as a snapshot. Once it has a snapshot,
+     * the old file is no longer read.
+     */
+    private void loadLegacyArea(String name) throws BoundsNotFoundException {
+        Path legacyFile = getLegacyAreaFile(name);
+        if (Files.exists(getAreaFile(name)) || !Files.exists(legacyFile)) {
+            throw new BoundsNotFoundException();
         }
-
-        currentArea = loadAreaFromFile(name);
-        if (currentArea == null) {
+        try {
+            AreaImpl area = LegacyAreaReader.read(legacyFile);
+            AreaJournal legacyJournal = AreaJournal.create(getJournalFile(name));
+            legacyJournal.checkpoint(area, getAreaFile(name));
+            currentArea = area;
+            journal = legacyJournal;
+        } catch (IOException e) {
             throw new BoundsNotFoundException();
         }
     }
 
     @Override
     public void saveArea() throws NoAreaLoadedException {
-        if (currentArea == null) {
+        if (!hasAreaLoaded()) {
             throw new NoAreaLoadedException();
         }
-        saveCurrentAreaToFile(currentArea);
+        saveCurrentAreaToFile();
+    }
+
+    @Override
+    public void closeArea() {
+        cacheCurrentArea();
+        AreaCache.Entry evicted;
+        while ((evicted = cachedAreas.removeOldest()) != null) {
+            handOff(evicted);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        closeArea();
+        saver.awaitAll();
     }
 
     @Override
     public AreaReadOnly getCurrentArea() throws NoAreaLoadedException {
-        if (currentArea == null) {
+        if (!hasAreaLoaded()) {
             throw new NoAreaLoadedException();
         }
-        return currentArea;
+        return area();
+    }
+
+    @Override
+    public String getCurrentAreaName() throws NoAreaLoadedException {
+        if (!hasAreaLoaded()) {
+            throw new NoAreaLoadedException();
+        }
+        return areaName();
     }
 
     @Override
     public boolean equalBounds(long topLat, long leftLong, long bottomLat, long rightLong) {
+        AreaSnapshot.Header header = unreadArea;
+        if (header != null) {
+            return header.topLat() == topLat &&
+                    header.leftLong() == leftLong &&
+                    header.bottomLat() == bottomLat &&
+                    header.rightLong() == rightLong;
+        }
         return currentArea != null &&
                 currentArea.getTopLat() == topLat &&
                 currentArea.getLeftLong() == leftLong &&
@@ -77,7 +247,9 @@ public class SystemManagerImpl implements SystemManager {
             throw new InvalidLocationException();
         }
 
-        currentArea.createAndAddService(type, name, lat, lon, price, value);
+        journal.addService(type, name, lat, lon, price, value);
+        changes++;
+        area().createAndAddService(type, name, lat, lon, price, value);
     }
 
     @Override
@@ -86,32 +258,34 @@ public class SystemManagerImpl implements SystemManager {
         if (rating < 1 || rating > 5) {
             throw new InvalidStarsException();
         }
-        if (!currentArea.containsService(serviceName)) {
+        if (!area().containsService(serviceName)) {
             throw new ServiceNotFoundException();
         }
-        currentArea.addReviewToService(serviceName, rating, comment);
+        journal.addReview(serviceName, rating, comment);
+        changes++;
+        area().addReviewToService(serviceName, rating, comment);
     }
 
     @Override
     public Iterator<? extends ServiceReadOnly> listServices() throws NoServicesException {
-        if (currentArea.getNumberOfServices() == 0) {
+        if (area().getNumberOfServices() == 0) {
             throw new NoServicesException();
         }
-        return currentArea.getServices();
+        return area().getServices();
     }
 
     @Override
     public Iterator<? extends ServiceReadOnly> getRankedServices() {
-        return currentArea.getRankedServices();
+        return area().getRankedServices();
     }
 
     @Override
     public void addStudent(StudentType type, String name, String country, String lodgingName) throws SystemBoundsNotDefinedException, InvalidStudentTypeException, LodgingNotFoundException, StudentAlreadyExistsException, LodgingIsFullException {
 
-        if (currentArea == null) {
+        if (!hasAreaLoaded()) {
             throw new SystemBoundsNotDefinedException();
         }
-        if (!currentArea.isLodgingService(lodgingName)) {
+        if (!area().isLodgingService(lodgingName)) {
             throw new LodgingNotFoundException();
         }
 
@@ -119,76 +293,96 @@ public class SystemManagerImpl implements SystemManager {
             throw new InvalidStudentTypeException();
         }
 
-        currentArea.addStudentWithLodging(type, name, country, lodgingName);
+        journal.addStudent(type, name, country, lodgingName);
+        changes++;
+        area().addStudentWithLodging(type, name, country, lodgingName);
     }
 
     @Override
     public Iterator<? extends StudentReadOnly> listStudents(String filter) {
         if (filter.equalsIgnoreCase("all")) {
-            return currentArea.listAllStudents();
+            return area().listAllStudents();
         } else {
-            return currentArea.listStudentsByCountry(filter);
+            return area().listStudentsByCountry(filter);
         }
     }
 
+    @Override
+    public Iterator<? extends StudentReadOnly> listStudents(int offset, int limit) {
+        return area().listStudentsPage(offset, limit);
+    }
+
     @Override
     public void removeStudent(String name) throws StudentNotFoundException {
-        if (!currentArea.containsStudent(name)) {
+        if (!area().containsStudent(name)) {
             throw new StudentNotFoundException();
         }
-        currentArea.removeStudentWithCleanup(name);
+        journal.removeStudent(name);
+        changes++;
+        area().removeStudentWithCleanup(name);
     }
 
     @Override
     public void goToLocation(String studentName, String serviceName) throws StudentNotFoundException, ServiceNotFoundException, AlreadyThereException, EatingIsFullException, NotValidServiceException {
 
-        if (!currentArea.containsService(serviceName)) {
+        if (!area().containsService(serviceName)) {
             throw new ServiceNotFoundException();
         }
-        if (!currentArea.containsStudent(studentName)) {
+        if (!area().containsStudent(studentName)) {
             throw new StudentNotFoundException();
         }
 
-        currentArea.moveStudentToService(studentName, serviceName);
+        // Moves that share a student or a service are recorded in the order they run.
+        AreaImpl area = (AreaImpl) area();
+        try (StripedLocks.Held ignored = area.lockMove(studentName, serviceName)) {
+            journal.goToLocation(studentName, serviceName);
+            changes++;
+            area.moveStudentToService(studentName, serviceName);
+        }
     }
 
     @Override
     public void moveStudentHome(String studentName, String lodgingName) throws StudentNotFoundException, LodgingNotFoundException, LodgingIsFullException, StudentIsThriftyException, AlreadyStudentHomeException {
 
-        if (!currentArea.isLodgingService(lodgingName)) {
+        if (!area().isLodgingService(lodgingName)) {
             throw new LodgingNotFoundException();
         }
-        if (!currentArea.containsStudent(studentName)) {
+        if (!area().containsStudent(studentName)) {
             throw new StudentNotFoundException();
         }
 
-        currentArea.moveStudentHome(studentName, lodgingName);
+        AreaImpl area = (AreaImpl) area();
+        try (StripedLocks.Held ignored = area.lockMove(studentName, lodgingName)) {
+            journal.moveHome(studentName, lodgingName);
+            changes++;
+            area.moveStudentHome(studentName, lodgingName);
+        }
     }
 
     @Override
     public ServiceReadOnly whereIsStudent(String studentName) throws StudentNotFoundException {
-        if (!currentArea.containsStudent(studentName)) {
+        if (!area().containsStudent(studentName)) {
             throw new StudentNotFoundException();
         }
-        return currentArea.getStudentCurrentLocation(studentName);
+        return area().getStudentCurrentLocation(studentName);
     }
 
     @Override
     public boolean isStudentDistracted(String studentName, String serviceName) {
-        return currentArea.isStudentDistracted(studentName, serviceName);
+        return area().isStudentDistracted(studentName, serviceName);
     }
 
     @Override
     public Iterator<? extends ServiceReadOnly> listVisitedLocations(String studentName)
             throws StudentNotFoundException, StudentIsThriftyException, NoVisitedLocationsException {
 
-        if (!currentArea.containsStudent(studentName)) {
+        if (!area().containsStudent(studentName)) {
             throw new StudentNotFoundException();
         }
-        if (currentArea.isStudentThrifty(studentName)) {
+        if (area().isStudentThrifty(studentName)) {
             throw new StudentIsThriftyException();
         }
-        Iterator<Service> visitedIterator = currentArea.getStudentVisitedLocations(studentName);
+        Iterator<Service> visitedIterator = area().getStudentVisitedLocations(studentName);
         if (visitedIterator == null || !visitedIterator.hasNext()) {
             throw new NoVisitedLocationsException();
         }
@@ -202,14 +396,14 @@ public class SystemManagerImpl implements SystemManager {
         if (!">".equals(order) && !"<".equals(order)) {
             throw new InvalidOrderException();
         }
-        if (!currentArea.containsService(serviceName)) {
+        if (!area().containsService(serviceName)) {
             throw new ServiceNotFoundException();
         }
-        if (!currentArea.isServiceWithOccupancy(serviceName)) {
+        if (!area().isServiceWithOccupancy(serviceName)) {
             throw new ServiceDoesNotControlEntryExitException();
         }
 
-        TwoWayIterator<Student> it = currentArea.getServiceOccupants(serviceName);
+        TwoWayIterator<Student> it = area().getServiceOccupants(serviceName);
 
         if ("<".equals(order)) {
             while (it.hasNext()) it.next();
@@ -219,7 +413,7 @@ public class SystemManagerImpl implements SystemManager {
 
     @Override
     public Iterator<? extends ServiceReadOnly> listServicesWithTag(String tag) {
-        return currentArea.getServicesCollection().getServicesByTag(tag);
+        return area().getServicesCollection().getServicesByTag(tag);
     }
 
     @Override
@@ -230,23 +424,23 @@ public class SystemManagerImpl implements SystemManager {
         if (stars < 1 || stars > 5) {
             throw new InvalidStarsException();
         }
-        if (!currentArea.containsStudent(studentName)) {
+        if (!area().containsStudent(studentName)) {
             throw new StudentNotFoundException();
         }
         if (type==null) {
             throw new InvalidServiceTypeException();
         }
 
-        if (!currentArea.hasServicesOfType(type)) {
+        if (!area().hasServicesOfType(type)) {
             throw new NoServicesOfThisTypeException();
         }
 
-        Iterator<Service> filteredByTypeStars = currentArea.getServicesByTypeAndStars(type, stars);
+        Iterator<Service> filteredByTypeStars = area().getServicesByTypeAndStars(type, stars);
         if (!filteredByTypeStars.hasNext()) {
             throw new NoTypeServicesWithStarsException();
         }
 
-        return currentArea.getClosestServicesByTypeAndStars(studentName, type, stars);
+        return area().getClosestServicesByTypeAndStars(studentName, type, stars);
     }
 
     @Override
@@ -257,17 +451,17 @@ public class SystemManagerImpl implements SystemManager {
             throw new InvalidServiceTypeException();
         }
 
-        if (!currentArea.containsStudent(studentName)) {
+        if (!area().containsStudent(studentName)) {
             throw new StudentNotFoundException();
         }
 
-        Iterator<Service> typeServicesIterator = currentArea.getServicesByTypeOrderedByStars(serviceType);
+        Iterator<Service> typeServicesIterator = area().getServicesByTypeOrderedByStars(serviceType);
 
         if (!typeServicesIterator.hasNext()) {
             throw new NoServicesOfThisTypeException();
         }
 
-        return currentArea.findRelevantServiceForStudent(studentName, serviceType);
+        return area().findRelevantServiceForStudent(studentName, serviceType);
     }
 
     @Override
@@ -277,47 +471,47 @@ public class SystemManagerImpl implements SystemManager {
 
     @Override
     public String getServiceName(ServiceReadOnly service) {
-        return currentArea.getServiceNameProperty(service);
+        return area().getServiceNameProperty(service);
     }
 
     @Override
     public ServiceType getServiceType(ServiceReadOnly service) {
-        return currentArea.getServiceTypeProperty(service);
+        return area().getServiceTypeProperty(service);
     }
 
     @Override
     public long getServiceLatitude(ServiceReadOnly service) {
-        return currentArea.getServiceLatitudeProperty(service);
+        return area().getServiceLatitudeProperty(service);
     }
 
     @Override
     public long getServiceLongitude(ServiceReadOnly service) {
-        return currentArea.getServiceLongitudeProperty(service);
+        return area().getServiceLongitudeProperty(service);
     }
 
     @Override
     public String getStudentName(StudentReadOnly student) {
-        return currentArea.getStudentNameProperty(student);
+        return area().getStudentNameProperty(student);
     }
 
     @Override
     public StudentType getStudentType(StudentReadOnly student) {
-        return currentArea.getStudentTypeProperty(student);
+        return area().getStudentTypeProperty(student);
     }
 
     @Override
     public ServiceReadOnly getStudentCurrentLocation(StudentReadOnly student) {
-        return currentArea.getStudentCurrentLocation(student);
+        return area().getStudentCurrentLocation(student);
     }
 
     @Override
     public ServiceReadOnly getServiceByName(String name) {
-        return currentArea.getService(name);
+        return area().getService(name);
     }
 
     @Override
     public StudentReadOnly getStudentByName(String name) {
-        return currentArea.getStudent(name);
+        return area().getStudent(name);
     }
 
     @Override
@@ -327,28 +521,137 @@ public class SystemManagerImpl implements SystemManager {
 
     @Override
     public boolean hasAreaLoaded() {
-        return currentArea != null;
+        // The unread area is checked first: once a query clears it, the area read is set.
+        return unreadArea != null || currentArea != null;
+    }
+
+    /**
+     * Returns the current area, reading it from its snapshot first if needed.
+     */
+    private Area area() {
+        if (unreadArea != null) {
+            readArea();
+        }
+        return currentArea;
     }
 
-    private void saveCurrentAreaToFile(Area area) {
-        String filename = getAreaFileName(area.getName());
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(area);
+    private void readArea() {
+        readingArea.lock();
+        try {
+            if (unreadArea != null) {
+                readSnapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            readingArea.unlock();
+        }
+    }
+
+    /**
+     * Reads the area of a snapshot that has no checksum, which is the only way
+     * to tell that it is intact.
+     */
+    private void readUncheckedArea() throws BoundsNotFoundException {
+        try {
+            readSnapshot();
+        } catch (IOException e) {
+            unreadArea = null;
+            journal = null;
+            throw new BoundsNotFoundException();
+        }
+    }
+
+    /**
+     * Reads the unread area from its snapshot and replays its journal on it.
+     */
+    private void readSnapshot() throws IOException {
+        AreaImpl area = AreaSnapshot.read(unreadArea.file());
+        journal.replay(area);
+        currentArea = area;
+        unreadArea = null;
+    }
+
+    private String areaName() {
+        AreaSnapshot.Header header = unreadArea;
+        if (header != null) {
+            return header.name();
+        }
+        return currentArea != null ? currentArea.getName() : null;
+    }
+
+    private void saveCurrentAreaToFile() {
+        // An area that was never read is unchanged since it was saved.
+        if (currentArea == null) {
+            return;
+        }
+        try {
+            // The area stays in use, so a large journal is only folded into
+            // a new snapshot once the area is handed off.
+            if (journal.hasSnapshot()) {
+                journal.flush();
+            } else {
+                journal.checkpoint((AreaImpl) currentArea, getAreaFile(currentArea.getName()));
+            }
         } catch (Exception ignored) {
         }
     }
 
-    private Area loadAreaFromFile(String name) {
-        String filename = getAreaFileName(name);
-        try (ObjectInputStream ois = new ObjectInputStream((new FileInputStream(filename)))) {
-            return (Area) ois.readObject();
+    /**
+     * Unloads the current area into the cache. The area evicted from the cache,
+     * if any, is saved in the background.
+     */
+    private void cacheCurrentArea() {
+        if (hasAreaLoaded()) {
+            AreaCache.Entry evicted = cachedAreas.put(
+                new AreaCache.Entry(getAreaFileName(areaName()), currentArea, unreadArea, journal));
+            if (evicted != null) {
+                handOff(evicted);
+            }
+            changes++;
+        }
+        currentArea = null;
+        unreadArea = null;
+        journal = null;
+    }
+
+    /**
+     * Saves an area evicted from the cache in the background. An area that was
+     * never read is unchanged since it was saved.
+     */
+    private void handOff(AreaCache.Entry evicted) {
+        if (evicted.area() != null) {
+            saver.save((AreaImpl) evicted.area(), evicted.journal(), getAreaFile(evicted.area().getName()));
+        }
+    }
+
+    private AreaSnapshot.Header loadAreaHeaderFromFile(String name) {
+        try {
+            return AreaSnapshot.readHeader(getAreaFile(name));
         } catch (Exception ignored) {
             return null;
         }
     }
 
+    private static Path getAreaFile(String name) {
+        return Path.of(getAreaFileName(name) + ".area");
+    }
+
+    private static Path getLegacyAreaFile(String name) {
+        return Path.of(getAreaFileName(name) + ".ser");
+    }
+
+    private static Path getJournalFile(String name) {
+        return Path.of(getAreaFileName(name) + ".journal");
+    }
+
+    /**
+     * Returns the file name of an area. Characters that file names cannot hold on
+     * this platform become '?', as java.io streams did with the name they were given.
+     */
     private static String getAreaFileName(String name) {
-        return name.toLowerCase().replace(" ", "_") + ".ser";
+        String fileName = name.toLowerCase().replace(" ", "_");
+        return new String(fileName.getBytes(FILE_NAME_CHARSET), FILE_NAME_CHARSET);
     }
 
     private boolean areBoundsValid(long topLat, long leftLong, long bottomLat, long rightLong) {
@@ -356,7 +659,7 @@ public class SystemManagerImpl implements SystemManager {
     }
 
     private boolean validLocation(long lat, long lon) {
-        return currentArea.isWithinBounds(lat, lon);
+        return area().isWithinBounds(lat, lon);
     }
 
     private boolean isStudentTypeValid(StudentType type) {
@@ -11,6 +11,8 @@ import java.io.Serializable;
  */
 class AVLNode<E> extends BTNode<E> {
     protected transient int height;
+    // Number of nodes in the subtree rooted at this node.
+    protected transient int size;
 
     /**
      * Constructor
@@ -20,6 +22,7 @@ class AVLNode<E> extends BTNode<E> {
     public AVLNode(E elem) {
         super(elem);
         height=0;
+        size=1;
     }
     
     /**
@@ -44,16 +47,28 @@ class AVLNode<E> extends BTNode<E> {
     public AVLNode( E element, AVLNode<E> parent){
         super(element, parent,null, null);
         height=0;
+        size=1;
     }
 
     /**
-     * Updates the height of this node based on children's heights.
+     * Updates the height and the subtree size of this node based on its children's.
      * @apiNote Time Complexity: O(1)
      */
     public void updateHeight() {
         int leftH = height((AVLNode<E>) getLeftChild());
         int rightH = height((AVLNode<E>) getRightChild());
         this.height = 1 + Math.max(leftH, rightH);
+        this.size = 1 + size(getLeftChild()) + size(getRightChild());
+    }
+
+    /**
+     * Helper method to get the subtree size of a node.
+     * @apiNote Time Complexity: O(1)
+     * @param node - the node, or null
+     * @return number of nodes in the subtree rooted at node
+     */
+    static int size(Node<?> node) {
+        return node == null ? 0 : ((AVLNode<?>) node).size;
     }
 
     /**
@@ -1,5 +1,7 @@
 package dataStructures;
 
+import dataStructures.exceptions.InvalidPositionException;
+
 import java.io.*;
 
 /**
@@ -69,6 +71,93 @@ public class AVLSortedMap <K extends Comparable<K>,V> extends AdvancedBSTree<K,V
     }
 
 
+    /**
+     * Returns the number of keys in the dictionary less than the specified key,
+     * which is the position of its entry in key order if it is there.
+     * @apiNote Time Complexity: O(log N)
+     * @param key - the key to rank
+     * @return number of keys less than key
+     */
+    public int rank(K key) {
+        BTNode<Entry<K, V>> current = (BTNode<Entry<K, V>>) root;
+        int rank = 0;
+        while (current != null) {
+            int cmp = key.compareTo(current.getElement().key());
+            if (cmp <= 0) {
+                if (cmp == 0) {
+                    return rank + AVLNode.size(current.getLeftChild());
+                }
+                current = (BTNode<Entry<K, V>>) current.getLeftChild();
+            } else {
+                rank += AVLNode.size(current.getLeftChild()) + 1;
+                current = (BTNode<Entry<K, V>>) current.getRightChild();
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the entry at the specified position in key order.
+     * @apiNote Time Complexity: O(log N)
+     * @param position - position of the entry, from 0
+     * @return entry with position keys less than its own
+     * @throws InvalidPositionException if position is not in [0, size)
+     */
+    public Entry<K, V> select(int position) {
+        if (position < 0 || position >= currentSize) {
+            throw new InvalidPositionException();
+        }
+        return nodeAt(position).getElement();
+    }
+
+    /**
+     * Returns an iterator of the entries in key order, starting at the specified position.
+     * @apiNote Time Complexity: O(log N) to create the iterator
+     * @param position - position of the first entry, from 0; the size of the dictionary for an empty iteration
+     * @return iterator of the entries from the position on
+     * @throws InvalidPositionException if position is not in [0, size]
+     */
+    public Iterator<Entry<K, V>> iterator(int position) {
+        if (position < 0 || position > currentSize) {
+            throw new InvalidPositionException();
+        }
+        BTNode<Entry<K, V>> first = position == currentSize ? null : nodeAt(position);
+        return new InOrderIterator<>((BTNode<Entry<K, V>>) root, first);
+    }
+
+    /**
+     * Returns an iterator of the values in key order, starting at the specified position.
+     * @apiNote Time Complexity: O(log N) to create the iterator
+     * @param position - position of the first value, from 0; the size of the dictionary for an empty iteration
+     * @return iterator of the values from the position on
+     * @throws InvalidPositionException if position is not in [0, size]
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    public Iterator<V> values(int position) {
+        return new ValuesIterator(iterator(position));
+    }
+
+    /**
+     * Finds the node at a position in key order, following subtree sizes down.
+     * @apiNote Time Complexity: O(log N)
+     * @param position - position in [0, size)
+     * @return the node at the position
+     */
+    private BTNode<Entry<K, V>> nodeAt(int position) {
+        BTNode<Entry<K, V>> current = (BTNode<Entry<K, V>>) root;
+        while (true) {
+            int left = AVLNode.size(current.getLeftChild());
+            if (position < left) {
+                current = (BTNode<Entry<K, V>>) current.getLeftChild();
+            } else if (position == left) {
+                return current;
+            } else {
+                position -= left + 1;
+                current = (BTNode<Entry<K, V>>) current.getRightChild();
+            }
+        }
+    }
+
     private AVLNode<Entry<K, V>> removeNode(BTNode<Entry<K, V>> nodeToRemove) {
 
         if (nodeToRemove.isLeaf()) {  //caso1
@@ -125,6 +214,9 @@ public class AVLSortedMap <K extends Comparable<K>,V> extends AdvancedBSTree<K,V
                         current = (AVLNode<Entry<K, V>>) restructure(x);
 
                         if (current != null) {
+                            // The rotations do not update the heights of the nodes they move.
+                            ((AVLNode<Entry<K, V>>) current.getLeftChild()).updateHeight();
+                            ((AVLNode<Entry<K, V>>) current.getRightChild()).updateHeight();
                             current.updateHeight();
                         }
                     }
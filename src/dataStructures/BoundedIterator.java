@@ -0,0 +1,79 @@
+package dataStructures;
+
+import dataStructures.exceptions.NoSuchElementException;
+
+/**
+ * An iterator that wraps another iterator and returns at most a given number
+ * of its first elements.
+ *
+ * @param <E> Generic Element
+ */
+public class BoundedIterator<E> implements Iterator<E> {
+
+    /**
+     * The underlying (wrapped) iterator that provides the elements.
+     */
+    private final Iterator<E> iterator;
+
+    /**
+     * Most elements to return.
+     */
+    private final int limit;
+
+    /**
+     * Elements returned since the start of the iteration.
+     */
+    private int returned;
+
+    /**
+     * Creates a new BoundedIterator.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @param iterator The iterator to be wrapped.
+     * @param limit Most elements to return, not negative.
+     */
+    public BoundedIterator(Iterator<E> iterator, int limit) {
+        this.iterator = iterator;
+        this.limit = limit;
+        this.returned = 0;
+    }
+
+    /**
+     * Returns true if next would return an element
+     * rather than throwing an exception.
+     *
+     * @apiNote Time Complexity: O(1) plus that of the wrapped iterator
+     * @return true iff the iteration has more elements
+     */
+    @Override
+    public boolean hasNext() {
+        return returned < limit && iterator.hasNext();
+    }
+
+    /**
+     * Returns the next element in the iteration.
+     *
+     * @apiNote Time Complexity: O(1) plus that of the wrapped iterator
+     * @return the next element in the iteration
+     * @throws NoSuchElementException - if call is made without verifying pre-condition
+     */
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        returned++;
+        return iterator.next();
+    }
+
+    /**
+     * Restarts the iteration, rewinding the wrapped iterator.
+     *
+     * @apiNote Time Complexity: that of rewinding the wrapped iterator
+     */
+    @Override
+    public void rewind() {
+        iterator.rewind();
+        returned = 0;
+    }
+}
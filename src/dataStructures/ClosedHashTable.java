@@ -1,5 +1,7 @@
 package dataStructures;
 
+import dataStructures.exceptions.NoSuchElementException;
+
 import java.io.Serial;
 import java.io.Serializable;
 
@@ -22,9 +24,19 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
     // removed cell
     static final Entry<?,?> REMOVED_CELL = new Entry<>(null,null);
 
+    // Slots of the previous array moved by each put or remove during an incremental rehash.
+    static final int SLOTS_MOVED_PER_OPERATION = 4;
+
     // The array of entries.
     private transient Entry<K,V>[] table; // mudado p transient
 
+    // Whether the table grows by incremental rehashes instead of all at once.
+    private final boolean incremental;
+    // During an incremental rehash, the previous array, whose moved entries are removed cells.
+    private transient Entry<K,V>[] oldTable;
+    // Next slot of the previous array to move.
+    private transient int nextToMove;
+
     /**
      * Constructors
      */
@@ -33,9 +45,24 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
         this(DEFAULT_CAPACITY);
     }
 
-    @SuppressWarnings("unchecked")
     public ClosedHashTable( int capacity ){
+        this(capacity, false);
+    }
+
+    /**
+     * Constructor with an incremental rehash mode. In that mode, a full table
+     * does not move every entry at once to a larger array: it keeps both arrays,
+     * searching both, and moves a few slots of the old one on each put or remove,
+     * so that no single operation pays for the whole rehash. New entries only go
+     * to the larger array.
+     *
+     * @param capacity - predicted number of entries
+     * @param incremental - whether the table rehashes incrementally
+     */
+    @SuppressWarnings("unchecked")
+    public ClosedHashTable( int capacity, boolean incremental ){
         super(capacity);
+        this.incremental = incremental;
         int arraySize = HashTable.nextPrime((int) (capacity / IDEAL_LOAD_FACTOR));
         // Compiler gives a warning.
         table =  new Entry[arraySize];
@@ -47,17 +74,26 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
     //Methods for handling collisions.
     // Returns the hash value of the specified key.
     int hash( K key, int i ){
-        return Math.abs( key.hashCode() + i) % table.length;
+        return hash(key, i, table.length);
     }
+
+    private int hash( K key, int i, int length ){
+        return Math.abs( key.hashCode() + i) % length;
+    }
+
     /**
      * Linear Proving
      * @param key to search
      * @return the index of the table, where is the entry with the specified key, or null
      */
     int searchLinearProving(K key) {
-        for (int i = 0; i < table.length; i++) {
-            int index = hash(key, i);
-            Entry<K,V> entry = table[index];
+        return searchLinearProving(table, key);
+    }
+
+    private int searchLinearProving(Entry<K,V>[] entries, K key) {
+        for (int i = 0; i < entries.length; i++) {
+            int index = hash(key, i, entries.length);
+            Entry<K,V> entry = entries[index];
             if (entry == null) {
                 return NOT_FOUND; // Key not found
             }
@@ -83,6 +119,12 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
         if (index != NOT_FOUND) {
             return table[index].value();
         }
+        if (oldTable != null) {
+            index = searchLinearProving(oldTable, key);
+            if (index != NOT_FOUND) {
+                return oldTable[index].value();
+            }
+        }
         
         return null;
     }
@@ -101,6 +143,7 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
     public V put(K key, V value) {
         if (isFull())
             rehash();
+        moveSlots(SLOTS_MOVED_PER_OPERATION);
 
         int index = searchLinearProving(key);
         if (index != NOT_FOUND) {
@@ -108,6 +151,22 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
             table[index] = new Entry<>(key, value);
             return oldValue;
         }
+        if (oldTable != null) {
+            index = searchLinearProving(oldTable, key);
+            if (index != NOT_FOUND) {
+                V oldValue = oldTable[index].value();
+                oldTable[index] = new Entry<>(key, value);
+                return oldValue;
+            }
+        }
+        insert(new Entry<>(key, value));
+        currentSize++;
+        return null;
+    }
+
+    // Inserts an entry whose key is in neither array.
+    private void insert(Entry<K,V> entry) {
+        K key = entry.key();
         int insertionIdx = -1;
         for (int i = 0; i < table.length; i++) {
             int idx = hash(key, i);
@@ -123,29 +182,57 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
             }
         }
 
-        table[insertionIdx] = new Entry<>(key, value);
-        currentSize++;
-        return null;
+        table[insertionIdx] = entry;
     }
 
      @SuppressWarnings("unchecked")
      private void rehash(){
-         Entry<K,V>[] oldTable = table;
+         if (oldTable != null) {
+             // The previous incremental rehash did not finish in time.
+             moveSlots(oldTable.length);
+         }
+         Entry<K,V>[] previous = table;
          int newCapacity = HashTable.nextPrime(table.length * 2);
          table = new Entry[newCapacity];
-         currentSize = 0;
          maxSize = (int)(newCapacity * MAX_LOAD_FACTOR);
 
          for (int i = 0; i < table.length; i++) {
              table[i] = null;
          }
-         for (Entry<K,V> entry : oldTable) {
+         if (incremental) {
+             oldTable = previous;
+             nextToMove = 0;
+             return;
+         }
+         for (Entry<K,V> entry : previous) {
              if (entry != null && entry != REMOVED_CELL) {
-                 put(entry.key(), entry.value());
+                 insert(entry);
              }
          }
      }
 
+    /**
+     * During an incremental rehash, moves the entries of the next slots of the
+     * previous array to the current one, leaving removed cells so that the keys
+     * not moved yet are still found, and ends the rehash after the last slot.
+     */
+    @SuppressWarnings("unchecked")
+    private void moveSlots(int count) {
+        if (oldTable == null) {
+            return;
+        }
+        for (; count > 0 && nextToMove < oldTable.length; count--, nextToMove++) {
+            Entry<K,V> entry = oldTable[nextToMove];
+            if (entry != null && entry != REMOVED_CELL) {
+                insert(entry);
+                oldTable[nextToMove] = (Entry<K,V>) REMOVED_CELL;
+            }
+        }
+        if (nextToMove == oldTable.length) {
+            oldTable = null;
+        }
+    }
+
    
     /**
      * If there is an entry in the dictionary whose key is the specified key,
@@ -160,13 +247,19 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
     @Override
     @SuppressWarnings("unchecked")
     public V remove(K key) {
+        moveSlots(SLOTS_MOVED_PER_OPERATION);
+        Entry<K,V>[] entries = table;
         int index = searchLinearProving(key);
+        if (index == NOT_FOUND && oldTable != null) {
+            entries = oldTable;
+            index = searchLinearProving(oldTable, key);
+        }
 
         if (index == NOT_FOUND) {
             return null;
         }
-        V oldValue = table[index].value();
-        table[index] = (Entry<K,V>) REMOVED_CELL;
+        V oldValue = entries[index].value();
+        entries[index] = (Entry<K,V>) REMOVED_CELL;
         currentSize--;
 
         return oldValue;
@@ -180,8 +273,38 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
      */
     @Override
     public Iterator<Entry<K, V>> iterator() {
-        return new FilterIterator<>(new ArrayIterator<>(table,table.length-1), m ->  m!=null && m!= REMOVED_CELL);
+        return new FilterIterator<>(new SlotIterator(), m ->  m!=null && m!= REMOVED_CELL);
+
+    }
+
+    /**
+     * Iterator over every slot of the table and, during an incremental rehash,
+     * of the previous array after it.
+     */
+    private class SlotIterator implements Iterator<Entry<K,V>> {
+
+        private final Entry<K,V>[] entries = table;
+        private final Entry<K,V>[] oldEntries = oldTable;
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            return next < entries.length + (oldEntries == null ? 0 : oldEntries.length);
+        }
 
+        @Override
+        public Entry<K,V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int slot = next++;
+            return slot < entries.length ? entries[slot] : oldEntries[slot - entries.length];
+        }
+
+        @Override
+        public void rewind() {
+            next = 0;
+        }
     }
 
     @Serial
@@ -189,11 +312,11 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
             throws java.io.IOException {
         out.defaultWriteObject();
         out.writeInt(table.length);
-        for (Entry<K,V> entry : table) {
-            if (entry != null && entry != REMOVED_CELL) {
-                out.writeObject(entry.key());
-                out.writeObject(entry.value());
-            }
+        Iterator<Entry<K,V>> it = iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            out.writeObject(entry.key());
+            out.writeObject(entry.value());
         }
         out.writeObject(null); // End marker
     }
@@ -208,6 +331,7 @@ public class ClosedHashTable<K,V> extends HashTable<K,V> implements Serializable
         for (int i = 0; i < tableLength; i++) {
             table[i] = null;
         }
+        currentSize = 0;
 
         Object key;
         while ((key = in.readObject()) != null) {
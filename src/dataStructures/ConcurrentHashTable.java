@@ -0,0 +1,407 @@
+package dataStructures;
+
+import dataStructures.exceptions.NoSuchElementException;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Separate chaining hash table that any number of threads may use at once.
+ * <p>
+ * The table is split in stripes, each a small hash table with its own lock,
+ * chosen by the high bits of the hash code; its buckets are chosen by the low
+ * bits. Only writes lock, and only the stripe of their key, so writes to
+ * different stripes run in parallel. Reads never lock: the links of a chain
+ * never change once published, so a read walks a chain that stays valid while
+ * it is replaced. A removal copies the nodes before the removed one, and a
+ * stripe that grows builds a new array, leaving the old ones to the reads
+ * still walking them.
+ * <p>
+ * Iterators are weakly consistent: they never fail, return each entry at most
+ * once, and see every entry that was there for the whole iteration, but may or
+ * may not see changes made while they run.
+ *
+ * @param <K> Generic Key
+ * @param <V> Generic Value
+ */
+public class ConcurrentHashTable<K,V> implements Map<K,V>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    // Default number of stripes, which bounds the writes running in parallel.
+    static final int DEFAULT_STRIPES = 16;
+    static final int MAX_STRIPES = 256;
+    static final float MAX_LOAD_FACTOR = 0.75f;
+
+    /**
+     * Link of a chain; only its value may change after it is published.
+     */
+    private static final class Node<K,V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        final Node<K,V> next;
+
+        Node(K key, int hash, V value, Node<K,V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Part of the table guarded by one lock, held by its writers.
+     */
+    private static final class Stripe<K,V> extends ReentrantLock {
+        // Buckets of the stripe, of a power of two length, replaced when it grows.
+        volatile AtomicReferenceArray<Node<K,V>> table;
+        // Number of entries, only changed under the lock.
+        volatile int count;
+        // Number of entries above which the stripe grows.
+        int maxSize;
+
+        Stripe(int length) {
+            allocate(length);
+        }
+
+        void allocate(int length) {
+            table = new AtomicReferenceArray<>(length);
+            maxSize = (int) (length * MAX_LOAD_FACTOR);
+        }
+    }
+
+    private transient Stripe<K,V>[] stripes;
+    private transient int stripeMask;
+
+    /**
+     * Constructors
+     */
+
+    public ConcurrentHashTable() {
+        this(HashTable.DEFAULT_CAPACITY);
+    }
+
+    public ConcurrentHashTable(int capacity) {
+        this(capacity, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor with the number of stripes.
+     *
+     * @param capacity - predicted number of entries
+     * @param stripes - number of writes that may run in parallel, rounded up to a power of two
+     */
+    public ConcurrentHashTable(int capacity, int stripes) {
+        allocate(tableSizeFor(Math.min(stripes, MAX_STRIPES)),
+                (int) (capacity / MAX_LOAD_FACTOR) + 1);
+    }
+
+    // Returns the power of two not less than the specified number.
+    private static int tableSizeFor(int number) {
+        return Integer.highestOneBit(Math.max(2, number) - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int count, int buckets) {
+        stripes = new Stripe[count];
+        stripeMask = count - 1;
+        int length = tableSizeFor(buckets / count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>(length);
+        }
+    }
+
+    // Scrambles the hash code, so that both its high and its low bits depend on every bit.
+    static int spread(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private Stripe<K,V> stripeOf(int hash) {
+        return stripes[(hash >>> 24) & stripeMask];
+    }
+
+    /**
+     * Returns true iff the dictionary contains no entries.
+     *
+     * @apiNote Time Complexity: O(S) where S is the number of stripes
+     * @return true if dictionary is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        for (Stripe<K,V> stripe : stripes) {
+            if (stripe.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of entries in the dictionary. While other threads
+     * change it, the number of entries at some moment of the call.
+     *
+     * @apiNote Time Complexity: O(S) where S is the number of stripes
+     * @return number of elements in the dictionary
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe<K,V> stripe : stripes) {
+            size += stripe.count;
+        }
+        return size;
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * returns its value; otherwise, returns null. Never waits for a lock.
+     *
+     * @apiNote Time Complexity: O(1) average case
+     * @param key whose associated value is to be returned
+     * @return value of entry in the dictionary whose key is the specified key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V get(K key) {
+        int hash = spread(key);
+        AtomicReferenceArray<Node<K,V>> table = stripeOf(hash).table;
+        Node<K,V> node = table.get(hash & (table.length() - 1));
+        while (node != null) {
+            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                return node.value;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * replaces its value by the specified value and returns the old value;
+     * otherwise, inserts the entry (key, value) and returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case, O(n/S) when the stripe grows
+     * @param key   with which the specified value is to be associated
+     * @param value to be associated with the specified key
+     * @return previous value associated with key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V put(K key, V value) {
+        int hash = spread(key);
+        Stripe<K,V> stripe = stripeOf(hash);
+        stripe.lock();
+        try {
+            AtomicReferenceArray<Node<K,V>> table = stripe.table;
+            int index = hash & (table.length() - 1);
+            Node<K,V> first = table.get(index);
+            for (Node<K,V> node = first; node != null; node = node.next) {
+                if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                    V oldValue = node.value;
+                    node.value = value;
+                    return oldValue;
+                }
+            }
+            if (stripe.count == stripe.maxSize) {
+                rehash(stripe);
+                table = stripe.table;
+                index = hash & (table.length() - 1);
+                first = table.get(index);
+            }
+            table.set(index, new Node<>(key, hash, value, first));
+            stripe.count++;
+            return null;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    // Publishes a copy of the stripe with twice the buckets. Holds the lock of the stripe.
+    private void rehash(Stripe<K,V> stripe) {
+        AtomicReferenceArray<Node<K,V>> oldTable = stripe.table;
+        AtomicReferenceArray<Node<K,V>> table = new AtomicReferenceArray<>(oldTable.length() * 2);
+        int mask = table.length() - 1;
+        for (int i = 0; i < oldTable.length(); i++) {
+            for (Node<K,V> node = oldTable.get(i); node != null; node = node.next) {
+                int index = node.hash & mask;
+                table.set(index, new Node<>(node.key, node.hash, node.value, table.get(index)));
+            }
+        }
+        stripe.table = table;
+        stripe.maxSize = (int) (table.length() * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * removes it from the dictionary and returns its value;
+     * otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case
+     * @param key whose entry is to be removed from the map
+     * @return previous value associated with key,
+     * or null if the dictionary does not an entry with that key
+     */
+    @Override
+    public V remove(K key) {
+        int hash = spread(key);
+        Stripe<K,V> stripe = stripeOf(hash);
+        stripe.lock();
+        try {
+            AtomicReferenceArray<Node<K,V>> table = stripe.table;
+            int index = hash & (table.length() - 1);
+            Node<K,V> first = table.get(index);
+            Node<K,V> found = first;
+            while (found != null && !(found.hash == hash && (found.key == key || found.key.equals(key)))) {
+                found = found.next;
+            }
+            if (found == null) {
+                return null;
+            }
+            // Reads may be walking the chain: the nodes before the removed one are copied.
+            Node<K,V> chain = found.next;
+            for (Node<K,V> node = first; node != found; node = node.next) {
+                chain = new Node<>(node.key, node.hash, node.value, chain);
+            }
+            table.set(index, chain);
+            stripe.count--;
+            return found.value;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator of the entries in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the entries in the dictionary
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new ConcurrentIterator();
+    }
+
+    /**
+     * Returns a weakly consistent iterator of the values in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the values in the dictionary
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    @Override
+    public Iterator<V> values() {
+        return new ValuesIterator(iterator());
+    }
+
+    /**
+     * Returns a weakly consistent iterator of the keys in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the keys in the dictionary
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    @Override
+    public Iterator<K> keys() {
+        return new KeysIterator(iterator());
+    }
+
+    /**
+     * Iterator over the stripes, each in the array it had when the iterator got to it.
+     */
+    private class ConcurrentIterator implements Iterator<Entry<K,V>> {
+
+        private int stripeIndex;
+        private AtomicReferenceArray<Node<K,V>> table;
+        private int bucketIndex;
+        // Next node to return, or null at the end.
+        private Node<K,V> next;
+
+        ConcurrentIterator() {
+            rewind();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K,V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K,V> node = next;
+            next = node.next;
+            if (next == null) {
+                advance();
+            }
+            return new Entry<>(node.key, node.value);
+        }
+
+        @Override
+        public void rewind() {
+            stripeIndex = 0;
+            table = stripes[0].table;
+            bucketIndex = -1;
+            advance();
+        }
+
+        // Finds the first node of the next non-empty bucket.
+        private void advance() {
+            while (true) {
+                bucketIndex++;
+                if (bucketIndex == table.length()) {
+                    if (++stripeIndex == stripes.length) {
+                        next = null;
+                        return;
+                    }
+                    table = stripes[stripeIndex].table;
+                    bucketIndex = 0;
+                }
+                next = table.get(bucketIndex);
+                if (next != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Serial
+    private void writeObject(java.io.ObjectOutputStream out)
+            throws java.io.IOException {
+        out.defaultWriteObject();
+        out.writeInt(stripes.length);
+        out.writeInt(size());
+        Iterator<Entry<K,V>> it = iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            out.writeObject(entry.key());
+            out.writeObject(entry.value());
+        }
+        out.writeObject(null); // End marker
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in)
+            throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        allocate(count, (int) (in.readInt() / MAX_LOAD_FACTOR) + 1);
+
+        Object key;
+        while ((key = in.readObject()) != null) {
+            V value = (V) in.readObject();
+            put((K) key, value);
+        }
+    }
+}
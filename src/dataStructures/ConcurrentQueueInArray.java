@@ -0,0 +1,196 @@
+package dataStructures;
+
+import dataStructures.exceptions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded queue in a circular array, for many producer threads and one consumer
+ * thread, without locks.
+ * <p>
+ * Any thread may insert elements; only one thread, the consumer, may look at or
+ * remove them. Each slot of the array has a sequence number that says whose turn
+ * it is: producers claim the rear with a compare-and-set, fill their slot, and
+ * then publish it by advancing its sequence; the consumer takes a slot once it is
+ * published and hands it back to the producers of the next round. A producer
+ * stalled between claiming and publishing holds back the consumer, but no other
+ * producer.
+ *
+ * @param <E> Generic Element
+ */
+public class ConcurrentQueueInArray<E> implements Queue<E> {
+
+    // Default capacity of the queue.
+    static final int DEFAULT_CAPACITY = 1024;
+
+    // Memory of the queue: a circular array, of a power of two length.
+    private final E[] elements;
+    // Round of each slot: i + k * length when free for the k-th time, one more once filled.
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    // Number of elements ever claimed by producers.
+    private final AtomicLong rear;
+    // Number of elements ever removed, only changed by the consumer.
+    private volatile long front;
+
+    /**
+     * Constructor with capacity
+     * @apiNote Time Complexity: O(capacity)
+     * @param capacity - maximum number of elements, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentQueueInArray(int capacity) {
+        int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        elements = (E[]) new Object[length];
+        sequences = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            sequences.set(i, i);
+        }
+        mask = length - 1;
+        rear = new AtomicLong();
+        front = 0;
+    }
+
+    /**
+     * Constructor with default capacity
+     * @apiNote Time Complexity: O(DEFAULT_CAPACITY)
+     */
+    public ConcurrentQueueInArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns true iff the queue contains no elements ready to be removed.
+     * Only for the consumer.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return true iff queue is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return sequences.get(slot(front)) != front + 1;
+    }
+
+    /**
+     * Returns the number of elements in the queue, counting those still being
+     * inserted. May be called by any thread, but is only a hint for producers.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return number of elements in the queue
+     */
+    @Override
+    public int size() {
+        return (int) (rear.get() - front);
+    }
+
+    /**
+     * Returns the maximum number of elements in the queue.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return capacity of the queue
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Inserts the specified element at the rear of the queue.
+     * May be called by any thread.
+     *
+     * @apiNote Time Complexity: O(1), retried while other producers insert
+     * @param element - element to be inserted
+     * @throws FullQueueException when size = capacity
+     */
+    @Override
+    public void enqueue(E element) {
+        if (!offer(element)) {
+            throw new FullQueueException();
+        }
+    }
+
+    /**
+     * Inserts the specified element at the rear of the queue, unless the queue is full.
+     * May be called by any thread.
+     *
+     * @apiNote Time Complexity: O(1), retried while other producers insert
+     * @param element - element to be inserted
+     * @return true iff the element was inserted
+     */
+    public boolean offer(E element) {
+        while (true) {
+            long position = rear.get();
+            int slot = slot(position);
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (rear.compareAndSet(position, position + 1)) {
+                    elements[slot] = element;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // The slot still holds the element of the previous round.
+                return false;
+            }
+            // Otherwise another producer claimed the slot first.
+        }
+    }
+
+    /**
+     * Returns the element at the front of the queue.
+     * Only for the consumer.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return element at front of queue
+     * @throws EmptyQueueException when no element is ready to be removed
+     */
+    @Override
+    public E peek() {
+        if (isEmpty()) {
+            throw new EmptyQueueException();
+        }
+        return elements[slot(front)];
+    }
+
+    /**
+     * Removes and returns the element at the front of the queue.
+     * Only for the consumer.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return element removed from front of queue
+     * @throws EmptyQueueException when no element is ready to be removed
+     */
+    @Override
+    public E dequeue() {
+        E element = poll();
+        if (element == null) {
+            throw new EmptyQueueException();
+        }
+        return element;
+    }
+
+    /**
+     * Removes and returns the element at the front of the queue, null if no
+     * element is ready to be removed. Only for the consumer.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return element removed from front of queue, or null
+     */
+    public E poll() {
+        long position = front;
+        int slot = slot(position);
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+        E element = elements[slot];
+        elements[slot] = null;
+        sequences.set(slot, position + elements.length);
+        front = position + 1;
+        return element;
+    }
+
+    private int slot(long position) {
+        return (int) position & mask;
+    }
+}
@@ -0,0 +1,476 @@
+package dataStructures;
+
+import dataStructures.exceptions.EmptyMapException;
+import dataStructures.exceptions.NoSuchElementException;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted map in a skip list that any number of threads may use at once.
+ * <p>
+ * Every entry is in the bottom list, in key order, and in each list above with
+ * probability 1/2, so a search skips most entries on its way down. Unlike the
+ * rotations of {@link AVLSortedMap}, which move whole subtrees, a change only
+ * links or unlinks one node, so it only locks the nodes just before it on each
+ * level (lazy skip list, Herlihy et al.): changes far apart in the key order
+ * run in parallel. Reads and iterations never lock. A node is only seen once
+ * linked on all its levels, and a removal first marks its node, so reads skip
+ * an entry being removed.
+ * <p>
+ * Iterators are weakly consistent: they return entries in key order, never fail,
+ * and see every entry that was there for the whole iteration, but may or may not
+ * see changes made while they run.
+ *
+ * @param <K> Generic Key
+ * @param <V> Generic Value
+ */
+public class ConcurrentSkipListSortedMap<K extends Comparable<K>, V> implements SortedMap<K,V>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    // Number of lists, enough for 2^32 entries.
+    static final int MAX_LEVEL = 32;
+    // Volatile access to the elements of the arrays of next nodes.
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    /**
+     * Node of the lists, locked by the changes that link or unlink the next ones.
+     */
+    private static final class Node<K,V> extends ReentrantLock {
+        final K key;
+        volatile V value;
+        // Next node on each level the node is in, only accessed through NEXT.
+        private final Node<K,V>[] next;
+        // Set, under the lock, once a removal took the node.
+        volatile boolean marked;
+        // Set once the node is linked on all its levels.
+        volatile boolean fullyLinked;
+
+        @SuppressWarnings("unchecked")
+        Node(K key, V value, int levels) {
+            this.key = key;
+            this.value = value;
+            this.next = new Node[levels];
+        }
+
+        int levels() {
+            return next.length;
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<K,V> next(int level) {
+            return (Node<K,V>) NEXT.getVolatile(next, level);
+        }
+
+        void setNext(int level, Node<K,V> node) {
+            NEXT.setVolatile(next, level, node);
+        }
+
+        boolean isLive() {
+            return fullyLinked && !marked;
+        }
+    }
+
+    // Sentinels before and after every key; their keys are null.
+    private transient Node<K,V> head;
+    private transient Node<K,V> tail;
+    private transient AtomicInteger size;
+
+    /**
+     * Constructor
+     */
+    public ConcurrentSkipListSortedMap() {
+        initialize();
+    }
+
+    private void initialize() {
+        head = new Node<>(null, null, MAX_LEVEL);
+        tail = new Node<>(null, null, MAX_LEVEL);
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.setNext(level, tail);
+        }
+        head.fullyLinked = true;
+        tail.fullyLinked = true;
+        size = new AtomicInteger();
+    }
+
+    // Returns the number of levels of a new node: i with probability 1/2^i.
+    private static int randomLevels() {
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1))) + 1;
+    }
+
+    /**
+     * Finds, on each level, the last node before the key and the one after it.
+     *
+     * @param key - the key to search for
+     * @param preds - filled with the last node before the key on each level
+     * @param succs - filled with the next node on each level
+     * @return the highest level where succs holds the key, or -1 if none
+     */
+    private int find(K key, Node<K,V>[] preds, Node<K,V>[] succs) {
+        int found = -1;
+        Node<K,V> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<K,V> curr = pred.next(level);
+            while (curr != tail && curr.key.compareTo(key) < 0) {
+                pred = curr;
+                curr = pred.next(level);
+            }
+            if (found == -1 && curr != tail && curr.key.compareTo(key) == 0) {
+                found = level;
+            }
+            preds[level] = pred;
+            succs[level] = curr;
+        }
+        return found;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K,V>[] newLevels() {
+        return new Node[MAX_LEVEL];
+    }
+
+    // Unlocks the nodes of preds locked by a change, from level 0 to highest.
+    private static <K,V> void unlock(Node<K,V>[] preds, int highest) {
+        for (int level = 0; level <= highest; level++) {
+            preds[level].unlock();
+        }
+    }
+
+    /**
+     * Returns true iff the dictionary contains no entries.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return true if dictionary is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Returns the number of entries in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return number of elements in the dictionary
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * returns its value; otherwise, returns null. Never waits for a lock.
+     *
+     * @apiNote Time Complexity: O(log N) expected
+     * @param key whose associated value is to be returned
+     * @return value of entry in the dictionary whose key is the specified key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V get(K key) {
+        Node<K,V> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<K,V> curr = pred.next(level);
+            int cmp;
+            while (curr != tail && (cmp = curr.key.compareTo(key)) <= 0) {
+                if (cmp == 0) {
+                    return curr.isLive() ? curr.value : null;
+                }
+                pred = curr;
+                curr = pred.next(level);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * replaces its value by the specified value and returns the old value;
+     * otherwise, inserts the entry (key, value) and returns null.
+     *
+     * @apiNote Time Complexity: O(log N) expected, retried while nearby changes run
+     * @param key   with which the specified value is to be associated
+     * @param value to be associated with the specified key
+     * @return previous value associated with key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V put(K key, V value) {
+        int levels = randomLevels();
+        Node<K,V>[] preds = newLevels();
+        Node<K,V>[] succs = newLevels();
+        while (true) {
+            int found = find(key, preds, succs);
+            if (found != -1) {
+                Node<K,V> node = succs[found];
+                if (node.marked) {
+                    // Being removed: retried once it is unlinked.
+                    continue;
+                }
+                while (!node.fullyLinked) {
+                    Thread.onSpinWait();
+                }
+                node.lock();
+                try {
+                    if (!node.marked) {
+                        V oldValue = node.value;
+                        node.value = value;
+                        return oldValue;
+                    }
+                } finally {
+                    node.unlock();
+                }
+                continue;
+            }
+
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level < levels; level++) {
+                    Node<K,V> pred = preds[level];
+                    Node<K,V> succ = succs[level];
+                    pred.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && !succ.marked && pred.next(level) == succ;
+                }
+                if (!valid) {
+                    continue;
+                }
+                Node<K,V> node = new Node<>(key, value, levels);
+                for (int level = 0; level < levels; level++) {
+                    node.setNext(level, succs[level]);
+                }
+                for (int level = 0; level < levels; level++) {
+                    preds[level].setNext(level, node);
+                }
+                node.fullyLinked = true;
+                size.incrementAndGet();
+                return null;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * removes it from the dictionary and returns its value;
+     * otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(log N) expected, retried while nearby changes run
+     * @param key whose entry is to be removed from the map
+     * @return previous value associated with key,
+     * or null if the dictionary does not an entry with that key
+     */
+    @Override
+    public V remove(K key) {
+        Node<K,V>[] preds = newLevels();
+        Node<K,V>[] succs = newLevels();
+        Node<K,V> victim = null;
+        while (true) {
+            int found = find(key, preds, succs);
+            if (victim == null) {
+                if (found == -1) {
+                    return null;
+                }
+                Node<K,V> node = succs[found];
+                // A node still being linked is not in the map yet; one being
+                // unlinked, which may be missing on its top levels, no longer is.
+                if (!node.isLive() || node.levels() - 1 != found) {
+                    return null;
+                }
+                node.lock();
+                if (node.marked) {
+                    node.unlock();
+                    return null;
+                }
+                node.marked = true;
+                victim = node;
+            }
+
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level < victim.levels(); level++) {
+                    Node<K,V> pred = preds[level];
+                    pred.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && pred.next(level) == victim;
+                }
+                if (!valid) {
+                    continue;
+                }
+                for (int level = victim.levels() - 1; level >= 0; level--) {
+                    preds[level].setNext(level, victim.next(level));
+                }
+                V oldValue = victim.value;
+                victim.unlock();
+                size.decrementAndGet();
+                return oldValue;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+
+    /**
+     * Returns the entry with the smallest key in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1) unless the first entries are being changed
+     * @return entry with the smallest key
+     * @throws EmptyMapException if the dictionary is empty
+     */
+    @Override
+    public Entry<K, V> minEntry() {
+        Node<K,V> node = head.next(0);
+        while (node != tail && !node.isLive()) {
+            node = node.next(0);
+        }
+        if (node == tail) {
+            throw new EmptyMapException();
+        }
+        return new Entry<>(node.key, node.value);
+    }
+
+    /**
+     * Returns the entry with the largest key in the dictionary.
+     *
+     * @apiNote Time Complexity: O(log N) expected, O(N) if the last entry is being changed
+     * @return entry with the largest key
+     * @throws EmptyMapException if the dictionary is empty
+     */
+    @Override
+    public Entry<K, V> maxEntry() {
+        Node<K,V> pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node<K,V> curr = pred.next(level);
+            while (curr != tail) {
+                pred = curr;
+                curr = pred.next(level);
+            }
+        }
+        if (pred == head || !pred.isLive()) {
+            // The last node is being inserted or removed: the last live one is searched for.
+            pred = null;
+            for (Node<K,V> node = head.next(0); node != tail; node = node.next(0)) {
+                if (node.isLive()) {
+                    pred = node;
+                }
+            }
+            if (pred == null) {
+                throw new EmptyMapException();
+            }
+        }
+        return new Entry<>(pred.key, pred.value);
+    }
+
+    /**
+     * Returns a weakly consistent iterator of the entries in the dictionary, in key order.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the entries in the dictionary
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new SkipListIterator();
+    }
+
+    /**
+     * Returns a weakly consistent iterator of the values in the dictionary, in key order.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the values in the dictionary
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    @Override
+    public Iterator<V> values() {
+        return new ValuesIterator(iterator());
+    }
+
+    /**
+     * Returns a weakly consistent iterator of the keys in the dictionary, in order.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the keys in the dictionary
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    @Override
+    public Iterator<K> keys() {
+        return new KeysIterator(iterator());
+    }
+
+    /**
+     * Iterator over the live nodes of the bottom list.
+     */
+    private class SkipListIterator implements Iterator<Entry<K,V>> {
+
+        // Next live node, or the tail.
+        private Node<K,V> next;
+
+        SkipListIterator() {
+            rewind();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != tail;
+        }
+
+        @Override
+        public Entry<K,V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K,V> node = next;
+            advance(node);
+            return new Entry<>(node.key, node.value);
+        }
+
+        @Override
+        public void rewind() {
+            advance(head);
+        }
+
+        private void advance(Node<K,V> from) {
+            next = from.next(0);
+            while (next != tail && !next.isLive()) {
+                next = next.next(0);
+            }
+        }
+    }
+
+    @Serial
+    private void writeObject(java.io.ObjectOutputStream out)
+            throws java.io.IOException {
+        out.defaultWriteObject();
+        Iterator<Entry<K,V>> it = iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            out.writeObject(entry.key());
+            out.writeObject(entry.value());
+        }
+        out.writeObject(null); // End marker
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in)
+            throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initialize();
+
+        Object key;
+        while ((key = in.readObject()) != null) {
+            V value = (V) in.readObject();
+            put((K) key, value);
+        }
+    }
+}
@@ -102,6 +102,18 @@ public class DoublyLinkedList<E> implements TwoWayList<E>, Serializable {
 
     // --- Add Operations ---
 
+    /**
+     * Creates the node that will hold a new element of the list.
+     * Subclasses may override it to store extra information in the nodes.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @param element - Element to be stored in the node.
+     * @return The new node.
+     */
+    protected DoublyListNode<E> createNode(E element) {
+        return new DoublyListNode<>(element);
+    }
+
     /**
      * Inserts the element at the first position in the list.
      *
@@ -109,7 +121,7 @@ public class DoublyLinkedList<E> implements TwoWayList<E>, Serializable {
      * @param element - Element to be inserted.
      */
     public void addFirst(E element) {
-        DoublyListNode<E> newNode = new DoublyListNode<>(element);
+        DoublyListNode<E> newNode = createNode(element);
         if (isEmpty()) {
             tail = newNode;
             head = newNode;
@@ -128,7 +140,7 @@ public class DoublyLinkedList<E> implements TwoWayList<E>, Serializable {
      * @param element - Element to be inserted.
      */
     public void addLast(E element) {
-        DoublyListNode<E> newNode = new DoublyListNode<>(element);
+        DoublyListNode<E> newNode = createNode(element);
         if (isEmpty()) {
             tail = newNode;
             head = newNode;
@@ -164,7 +176,7 @@ public class DoublyLinkedList<E> implements TwoWayList<E>, Serializable {
             for (int i = 0; i < position; i++) {
                 current = current.getNext();
             }
-            DoublyListNode<E> newNode = new DoublyListNode<>(element);
+            DoublyListNode<E> newNode = createNode(element);
             newNode.setPrevious(current.getPrevious());
             newNode.setNext(current);
             current.getPrevious().setNext(newNode);
@@ -0,0 +1,71 @@
+package dataStructures;
+
+import dataStructures.exceptions.*;
+
+/**
+ * Iterator of the positions of a {@link PositionalDoublyLinkedList}.
+ * Iterates from the head (first node) to the tail (last node).
+ *
+ * @author AED  Team
+ * @version 1.0
+ * @param <E> Generic Element
+ */
+class DoublyPositionIterator<E> implements Iterator<Position<E>> {
+
+    /**
+     * Node with the first position in the iteration.
+     */
+    private final DoublyListNode<E> firstNode;
+
+    /**
+     * Node with the next position to be returned by {@link #next()}.
+     */
+    private DoublyListNode<E> nextToReturn;
+
+    /**
+     * DoublyPositionIterator constructor.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @param first - Node with the first position of the iteration.
+     */
+    public DoublyPositionIterator(DoublyListNode<E> first) {
+        this.firstNode = first;
+        this.nextToReturn = first;
+    }
+
+    /**
+     * Returns true if the iteration has more positions.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return {@code true} iff the iteration has more positions.
+     */
+    public boolean hasNext() {
+        return nextToReturn != null;
+    }
+
+    /**
+     * Returns the next position in the iteration and advances the iterator.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return The next position in the iteration.
+     * @throws NoSuchElementException - if call is made without verifying pre-condition.
+     */
+    public Position<E> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Position<E> position = (PositionalDoublyLinkedList.PositionNode<E>) nextToReturn;
+        nextToReturn = nextToReturn.getNext();
+        return position;
+    }
+
+    /**
+     * Restarts the iteration.
+     * After rewind, if the iteration is not empty, next() will return the first position.
+     *
+     * @apiNote Time Complexity: O(1)
+     */
+    public void rewind() {
+        this.nextToReturn = this.firstNode;
+    }
+}
@@ -0,0 +1,306 @@
+package dataStructures;
+
+import dataStructures.exceptions.*;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Open addressing hash table kept in flat parallel arrays of keys, values and
+ * hash codes, with linear probing.
+ * <p>
+ * Unlike {@link ClosedHashTable}, no entry is allocated to insert or replace a
+ * value: a probe compares the cached hash code in the slot before looking at the
+ * key, so a miss usually costs no access to the key itself. Removal shifts the
+ * following entries of the cluster back, so there are no removed cells for
+ * lookups to skip. Entries are only allocated when iterated.
+ *
+ * @param <K> Generic Key
+ * @param <V> Generic Value
+ */
+public class FlatHashTable<K,V> extends HashTable<K,V> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    //Load factors
+    static final float IDEAL_LOAD_FACTOR = 0.5f;
+    static final float MAX_LOAD_FACTOR = 0.75f;
+
+    // Keys, values and spread hash codes of the slots; an empty slot has a null key.
+    private transient K[] keys;
+    private transient V[] values;
+    private transient int[] hashes;
+    private transient int mask;
+
+    /**
+     * Constructors
+     */
+
+    public FlatHashTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FlatHashTable(int capacity) {
+        super(capacity);
+        allocate(tableSizeFor((int) (capacity / IDEAL_LOAD_FACTOR)));
+    }
+
+    // Returns the power of two not less than the specified number.
+    private static int tableSizeFor(int number) {
+        return Integer.highestOneBit(Math.max(2, number) - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        keys = (K[]) new Object[length];
+        values = (V[]) new Object[length];
+        hashes = new int[length];
+        mask = length - 1;
+        maxSize = (int) (length * MAX_LOAD_FACTOR);
+    }
+
+    // Mixes the high bits of the hash code into the low bits used for the index.
+    static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Linear probing
+     * @param key to search
+     * @param hash spread hash code of the key
+     * @return the index of the slot holding the key, or of the empty slot where it would go
+     */
+    private int slotOf(K key, int hash) {
+        int index = hash & mask;
+        K slotKey;
+        while ((slotKey = keys[index]) != null) {
+            if (hashes[index] == hash && (slotKey == key || slotKey.equals(key))) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * returns its value; otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case, O(n) worst case
+     * @param key whose associated value is to be returned
+     * @return value of entry in the dictionary whose key is the specified key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V get(K key) {
+        return values[slotOf(key, spread(key))];
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * replaces its value by the specified value and returns the old value;
+     * otherwise, inserts the entry (key, value) and returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case, O(n) when the table grows
+     * @param key   with which the specified value is to be associated
+     * @param value to be associated with the specified key
+     * @return previous value associated with key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V put(K key, V value) {
+        int hash = spread(key);
+        int index = slotOf(key, hash);
+        if (keys[index] != null) {
+            V oldValue = values[index];
+            values[index] = value;
+            return oldValue;
+        }
+        if (isFull()) {
+            rehash();
+            index = slotOf(key, hash);
+        }
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        currentSize++;
+        return null;
+    }
+
+    private void rehash() {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = oldHashes[i] & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * removes it from the dictionary and returns its value;
+     * otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case, O(n) worst case
+     * @param key whose entry is to be removed from the map
+     * @return previous value associated with key,
+     * or null if the dictionary does not an entry with that key
+     */
+    @Override
+    public V remove(K key) {
+        int index = slotOf(key, spread(key));
+        if (keys[index] == null) {
+            return null;
+        }
+        V oldValue = values[index];
+        currentSize--;
+
+        // Moves back every later entry of the cluster that the hole now cuts
+        // off from its home slot, and empties the slot left last.
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        hashes[hole] = 0;
+        return oldValue;
+    }
+
+    /**
+     * Returns an iterator of the entries in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the entries in the dictionary
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new SlotIterator<>() {
+            @Override
+            Entry<K, V> at(int slot) {
+                return new Entry<>(keys[slot], values[slot]);
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator of the values in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the values in the dictionary
+     */
+    @Override
+    public Iterator<V> values() {
+        return new SlotIterator<>() {
+            @Override
+            V at(int slot) {
+                return values[slot];
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator of the keys in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the keys in the dictionary
+     */
+    @Override
+    public Iterator<K> keys() {
+        return new SlotIterator<>() {
+            @Override
+            K at(int slot) {
+                return keys[slot];
+            }
+        };
+    }
+
+    /**
+     * Iterator over the occupied slots, in slot order.
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        // Next occupied slot, or the length of the table.
+        private int next;
+
+        SlotIterator() {
+            rewind();
+        }
+
+        abstract E at(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(next);
+            advance(next + 1);
+            return element;
+        }
+
+        @Override
+        public void rewind() {
+            advance(0);
+        }
+
+        private void advance(int from) {
+            next = from;
+            while (next < keys.length && keys[next] == null) {
+                next++;
+            }
+        }
+    }
+
+    @Serial
+    private void writeObject(java.io.ObjectOutputStream out)
+            throws java.io.IOException {
+        out.defaultWriteObject();
+        out.writeInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                out.writeObject(keys[i]);
+                out.writeObject(values[i]);
+            }
+        }
+        out.writeObject(null); // End marker
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in)
+            throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        allocate(in.readInt());
+        currentSize = 0;
+
+        Object key;
+        while ((key = in.readObject()) != null) {
+            V value = (V) in.readObject();
+            put((K) key, value);
+        }
+    }
+}
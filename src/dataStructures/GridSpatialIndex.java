@@ -0,0 +1,384 @@
+package dataStructures;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Grid Spatial Index
+ * Elements are kept in the cells of a uniform grid, stored in a hash table
+ * by cell coordinates. The cell sizes are recomputed from the number of elements
+ * and their bounding box whenever the index doubles or shrinks a lot,
+ * so that each cell holds only a few elements on average. Cells are square,
+ * except when the box is too thin for that, in which case the grid has a single row
+ * (or column).
+ * Nearest queries visit rings of cells around the query point and stop as soon
+ * as no unvisited cell can be closer than the best distance found.
+ * @author AED  Team
+ * @version 1.0
+ * @param <E> Generic Element
+ */
+public class GridSpatialIndex<E> implements SpatialIndex<E>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Number of elements below which the grid is never rebuilt.
+    static final int MIN_REBUILD_SIZE = 32;
+
+    // Average number of elements wanted per cell.
+    static final int ELEMENTS_PER_CELL = 2;
+
+    // Largest cell index allowed, so that both indexes fit in one long key.
+    static final long MAX_CELL_INDEX = Integer.MAX_VALUE;
+
+    /**
+     * Element stored in the grid, with its coordinates and insertion order.
+     */
+    private record Point<E>(E element, long x, long y, long order) implements Serializable {
+    }
+
+    // Cells of the grid, by packed cell coordinates.
+    private Map<Long, List<Point<E>>> cells;
+
+    // Size of each cell, along each coordinate.
+    private long cellWidth, cellHeight;
+
+    // Number of elements in the index.
+    private int currentSize;
+
+    // Order given to the next inserted element.
+    private long nextOrder;
+
+    // Bounding box of the elements, since the last rebuild.
+    private long minX, maxX, minY, maxY;
+
+    // Sizes that trigger a rebuild of the grid.
+    private int growSize, shrinkSize;
+
+    /**
+     * Constructor of an empty index, with a single cell covering every point.
+     * @apiNote Time Complexity: O(1)
+     */
+    public GridSpatialIndex() {
+        this.cells = new SepChainHashTable<>();
+        this.cellWidth = Long.MAX_VALUE;
+        this.cellHeight = Long.MAX_VALUE;
+        this.currentSize = 0;
+        this.nextOrder = 0;
+        this.growSize = MIN_REBUILD_SIZE;
+        this.shrinkSize = 0;
+    }
+
+    /**
+     * Returns true iff the index contains no elements.
+     * @apiNote Time Complexity: O(1)
+     * @return true iff the index is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    /**
+     * Returns the number of elements in the index.
+     * @apiNote Time Complexity: O(1)
+     * @return number of elements in the index
+     */
+    @Override
+    public int size() {
+        return currentSize;
+    }
+
+    /**
+     * Inserts the element at the given coordinates.
+     * @apiNote Time Complexity: O(1) amortized (O(N) when the grid is rebuilt)
+     * @param element - element to be inserted
+     * @param x - first coordinate of the element
+     * @param y - second coordinate of the element
+     */
+    @Override
+    public void insert(E element, long x, long y) {
+        Point<E> point = new Point<>(element, x, y, nextOrder++);
+        growBox(x, y);
+        currentSize++;
+
+        if (currentSize > growSize || !fitsCell(x, cellWidth) || !fitsCell(y, cellHeight)) {
+            rebuild(point);
+        } else {
+            addToCell(point);
+        }
+    }
+
+    /**
+     * Removes the element stored at the given coordinates.
+     * @apiNote Time Complexity: O(C) where C is the number of elements in the cell
+     * (O(N) when the grid is rebuilt)
+     * @param element - element to be removed
+     * @param x - first coordinate the element was inserted with
+     * @param y - second coordinate the element was inserted with
+     * @return true iff the element was found and removed
+     */
+    @Override
+    public boolean remove(E element, long x, long y) {
+        long key = cellKey(Math.floorDiv(x, cellWidth), Math.floorDiv(y, cellHeight));
+        List<Point<E>> cell = cells.get(key);
+        if (cell == null) {
+            return false;
+        }
+
+        Iterator<Point<E>> it = cell.iterator();
+        int index = 0;
+        while (it.hasNext() && !it.next().element().equals(element)) {
+            index++;
+        }
+        if (index == cell.size()) {
+            return false;
+        }
+
+        cell.remove(index);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        currentSize--;
+
+        if (currentSize < shrinkSize) {
+            rebuild(null);
+        }
+        return true;
+    }
+
+    /**
+     * Returns all the elements at the smallest Manhattan distance
+     * from the given point, oldest insertion first.
+     * @apiNote Time Complexity: O(R^2 + T log T) where R is the number of rings of cells
+     * visited and T the number of ties (R is a small constant for evenly spread elements)
+     * @param x - first coordinate of the point
+     * @param y - second coordinate of the point
+     * @return iterator of the closest elements (empty if the index is empty)
+     */
+    @Override
+    public Iterator<E> nearest(long x, long y) {
+        List<E> result = new DoublyLinkedList<>();
+        if (isEmpty()) {
+            return result.iterator();
+        }
+
+        long cx = Math.floorDiv(x, cellWidth);
+        long cy = Math.floorDiv(y, cellHeight);
+        long minCX = Math.floorDiv(minX, cellWidth);
+        long maxCX = Math.floorDiv(maxX, cellWidth);
+        long minCY = Math.floorDiv(minY, cellHeight);
+        long maxCY = Math.floorDiv(maxY, cellHeight);
+
+        long firstRing = Math.max(0, Math.max(Math.max(minCX - cx, cx - maxCX), Math.max(minCY - cy, cy - maxCY)));
+        long lastRing = Math.max(Math.max(cx - minCX, maxCX - cx), Math.max(cy - minCY, maxCY - cy));
+
+        SortedList<Point<E>> closest = new SortedDoublyLinkedList<>((a, b) -> Long.compare(a.order(), b.order()));
+        long best = Long.MAX_VALUE;
+
+        for (long r = firstRing; r <= lastRing; r++) {
+            long firstRow = Math.max(cy - r, minCY);
+            long lastRow = Math.min(cy + r, maxCY);
+            if (cx - r >= minCX) {
+                best = visitColumn(cx - r, firstRow, lastRow, x, y, best, closest);
+            }
+            if (r > 0 && cx + r <= maxCX) {
+                best = visitColumn(cx + r, firstRow, lastRow, x, y, best, closest);
+            }
+            if (cy - r >= minCY || cy + r <= maxCY) {
+                for (long i = Math.max(cx - r + 1, minCX); i <= Math.min(cx + r - 1, maxCX); i++) {
+                    if (cy - r >= minCY) {
+                        best = visitCell(i, cy - r, x, y, best, closest);
+                    }
+                    if (r > 0 && cy + r <= maxCY) {
+                        best = visitCell(i, cy + r, x, y, best, closest);
+                    }
+                }
+            }
+            // Every point in a farther ring is more than r cells away in some coordinate.
+            if (best <= ringDistance(r, cx, cy, minCX, maxCX, minCY, maxCY)) {
+                break;
+            }
+        }
+
+        Iterator<Point<E>> it = closest.iterator();
+        while (it.hasNext()) {
+            result.addLast(it.next().element());
+        }
+        return result.iterator();
+    }
+
+    /**
+     * Checks the cells of one column, between two rows (inclusive).
+     * @apiNote Time Complexity: O(C) where C is the number of elements in those cells
+     * @return the (possibly smaller) best distance
+     */
+    private long visitColumn(long i, long firstRow, long lastRow, long x, long y, long best, SortedList<Point<E>> closest) {
+        for (long j = firstRow; j <= lastRow; j++) {
+            best = visitCell(i, j, x, y, best, closest);
+        }
+        return best;
+    }
+
+    /**
+     * Checks the points of one cell against the best distance found so far.
+     * @apiNote Time Complexity: O(C) where C is the number of elements in the cell
+     * @return the (possibly smaller) best distance
+     */
+    private long visitCell(long i, long j, long x, long y, long best, SortedList<Point<E>> closest) {
+        List<Point<E>> cell = cells.get(cellKey(i, j));
+        if (cell == null) {
+            return best;
+        }
+        Iterator<Point<E>> it = cell.iterator();
+        while (it.hasNext()) {
+            Point<E> point = it.next();
+            long distance = Math.abs(x - point.x()) + Math.abs(y - point.y());
+            if (distance < best) {
+                // Reuse the list of ties instead of allocating one per new minimum.
+                while (!closest.isEmpty()) {
+                    closest.remove(closest.getMin());
+                }
+                best = distance;
+            }
+            if (distance == best) {
+                closest.add(point);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lower bound for the distance to any point outside the first r rings.
+     * Only the directions where the bounding box goes beyond those rings count.
+     * @apiNote Time Complexity: O(1)
+     */
+    private long ringDistance(long r, long cx, long cy, long minCX, long maxCX, long minCY, long maxCY) {
+        long bound = Long.MAX_VALUE;
+        if (cx - r > minCX || cx + r < maxCX) {
+            bound = Math.min(bound, scale(r, cellWidth));
+        }
+        if (cy - r > minCY || cy + r < maxCY) {
+            bound = Math.min(bound, scale(r, cellHeight));
+        }
+        return bound;
+    }
+
+    private static long scale(long r, long size) {
+        if (r != 0 && size > Long.MAX_VALUE / r) {
+            return Long.MAX_VALUE;
+        }
+        return r * size;
+    }
+
+    /**
+     * Rebuilds the grid with a cell size suited to the current elements.
+     * @apiNote Time Complexity: O(N)
+     * @param extra - point to add to the new grid, or null
+     */
+    private void rebuild(Point<E> extra) {
+        List<Point<E>> points = new DoublyLinkedList<>();
+        Iterator<List<Point<E>>> cellsIt = cells.values();
+        while (cellsIt.hasNext()) {
+            Iterator<Point<E>> it = cellsIt.next().iterator();
+            while (it.hasNext()) {
+                points.addLast(it.next());
+            }
+        }
+        if (extra != null) {
+            points.addLast(extra);
+        }
+
+        Iterator<Point<E>> it = points.iterator();
+        boolean first = true;
+        while (it.hasNext()) {
+            Point<E> point = it.next();
+            if (first) {
+                minX = maxX = point.x();
+                minY = maxY = point.y();
+                first = false;
+            } else {
+                growBox(point.x(), point.y());
+            }
+        }
+
+        computeCellSizes();
+        growSize = Math.max(MIN_REBUILD_SIZE, 2 * currentSize);
+        shrinkSize = currentSize < MIN_REBUILD_SIZE ? 0 : currentSize / 4;
+        cells = new SepChainHashTable<>(Math.max(currentSize / ELEMENTS_PER_CELL, 1));
+
+        it.rewind();
+        while (it.hasNext()) {
+            addToCell(it.next());
+        }
+    }
+
+    /**
+     * Cell sizes that give about ELEMENTS_PER_CELL elements per cell
+     * over the bounding box, while keeping every cell index within int range.
+     * @apiNote Time Complexity: O(1)
+     */
+    private void computeCellSizes() {
+        if (currentSize < MIN_REBUILD_SIZE) {
+            cellWidth = Long.MAX_VALUE;
+            cellHeight = Long.MAX_VALUE;
+            return;
+        }
+        double width = (double) maxX - minX + 1;
+        double height = (double) maxY - minY + 1;
+        double numberOfCells = (double) currentSize / ELEMENTS_PER_CELL;
+        double side = Math.sqrt(width * height / numberOfCells);
+
+        double w = side, h = side;
+        if (side >= height) {
+            w = width / numberOfCells;
+            h = height;
+        } else if (side >= width) {
+            w = width;
+            h = height / numberOfCells;
+        }
+        cellWidth = toCellSize(w, minX, maxX);
+        cellHeight = toCellSize(h, minY, maxY);
+    }
+
+    private static long toCellSize(double size, long min, long max) {
+        double farthest = Math.max(Math.abs((double) min), Math.abs((double) max));
+        size = Math.max(Math.ceil(size), Math.ceil((farthest + 1) / MAX_CELL_INDEX));
+        if (size >= Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(1, (long) size);
+    }
+
+    private void addToCell(Point<E> point) {
+        long key = cellKey(Math.floorDiv(point.x(), cellWidth), Math.floorDiv(point.y(), cellHeight));
+        List<Point<E>> cell = cells.get(key);
+        if (cell == null) {
+            cell = new DoublyLinkedList<>();
+            cells.put(key, cell);
+        }
+        cell.addLast(point);
+    }
+
+    private void growBox(long x, long y) {
+        if (currentSize == 0) {
+            minX = maxX = x;
+            minY = maxY = y;
+        } else {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+    }
+
+    private static boolean fitsCell(long coordinate, long size) {
+        return Math.abs(Math.floorDiv(coordinate, size)) <= MAX_CELL_INDEX;
+    }
+
+    // Packs both cell indexes in one long. Multiplying by an odd constant keeps keys
+    // distinct and spreads them over Long.hashCode, which would otherwise be just i ^ j.
+    private static long cellKey(long i, long j) {
+        return ((i << 32) | (j & 0xffffffffL)) * 0x9E3779B97F4A7C15L;
+    }
+}
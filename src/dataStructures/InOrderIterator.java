@@ -20,6 +20,12 @@ public class InOrderIterator<E> implements Iterator<E> {
      */
     private BTNode<E> root;
 
+    /**
+     * Node where the iteration starts, if not the leftmost one
+     */
+    private BTNode<E> first;
+    private boolean fromFirst;
+
     /**
      *
      * @param root
@@ -29,6 +35,19 @@ public class InOrderIterator<E> implements Iterator<E> {
         rewind();
     }
 
+    /**
+     * Constructor for an iteration that starts at a given node, and goes on in order
+     * @apiNote Time Complexity: O(1)
+     * @param root - root of the tree
+     * @param first - node of the first element, or null for an empty iteration
+     */
+    public InOrderIterator(BTNode<E> root, BTNode<E> first) {
+        this.root=root;
+        this.first=first;
+        this.fromFirst=true;
+        rewind();
+    }
+
     /**
      * Returns true if next would return an element
      * rather than throwing an exception.
@@ -78,7 +97,9 @@ public class InOrderIterator<E> implements Iterator<E> {
      * @apiNote Time Complexity: O(h) where h is the height (finds leftmost node)
      */
     public void rewind() {
-        if (root==null)
+        if (fromFirst)
+            next=first;
+        else if (root==null)
             next=null;
         else
             next=root.furtherLeftElement();
@@ -0,0 +1,200 @@
+package dataStructures;
+
+import dataStructures.exceptions.NoSuchElementException;
+
+/**
+ * Map for a bucket of {@link SepChainHashTable} with too many entries for a list.
+ * <p>
+ * Entries are kept in an AVL tree ordered by the hash codes of their keys, so
+ * that keys with different hash codes that fall in the same bucket are found in
+ * O(log N). Keys with the very same hash code share a node of the tree, in a
+ * singly linked list.
+ *
+ * @param <K> Generic Key
+ * @param <V> Generic Value
+ */
+class MapTreeBucket<K,V> implements Map<K,V> {
+
+    // Keys of each hash code, and their values.
+    private final AVLSortedMap<Integer, Map<K,V>> tree;
+
+    private int size;
+
+    /**
+     * Constructor with the entries of another bucket.
+     * @apiNote Time Complexity: O(N log N)
+     * @param bucket - entries to put in the new bucket
+     */
+    public MapTreeBucket(Map<K,V> bucket) {
+        tree = new AVLSortedMap<>();
+        size = 0;
+        Iterator<Entry<K,V>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            put(entry.key(), entry.value());
+        }
+    }
+
+    /**
+     * Returns true iff the dictionary contains no entries.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return true if dictionary is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of entries in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return number of elements in the dictionary
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * returns its value; otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(log N), plus the keys with the same hash code
+     * @param key whose associated value is to be returned
+     * @return value of entry in the dictionary whose key is the specified key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V get(K key) {
+        Map<K,V> sameHash = tree.get(key.hashCode());
+        return sameHash == null ? null : sameHash.get(key);
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * replaces its value by the specified value and returns the old value;
+     * otherwise, inserts the entry (key, value) and returns null.
+     *
+     * @apiNote Time Complexity: O(log N), plus the keys with the same hash code
+     * @param key   with which the specified value is to be associated
+     * @param value to be associated with the specified key
+     * @return previous value associated with key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V put(K key, V value) {
+        Integer hash = key.hashCode();
+        Map<K,V> sameHash = tree.get(hash);
+        if (sameHash == null) {
+            sameHash = new MapSinglyList<>();
+            tree.put(hash, sameHash);
+        }
+        V oldValue = sameHash.put(key, value);
+        if (oldValue == null) {
+            size++;
+        }
+        return oldValue;
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * removes it from the dictionary and returns its value;
+     * otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(log N), plus the keys with the same hash code
+     * @param key whose entry is to be removed from the map
+     * @return previous value associated with key,
+     * or null if the dictionary does not an entry with that key
+     */
+    @Override
+    public V remove(K key) {
+        Integer hash = key.hashCode();
+        Map<K,V> sameHash = tree.get(hash);
+        if (sameHash == null) {
+            return null;
+        }
+        V oldValue = sameHash.remove(key);
+        if (oldValue != null) {
+            size--;
+            if (sameHash.isEmpty()) {
+                tree.remove(hash);
+            }
+        }
+        return oldValue;
+    }
+
+    /**
+     * Returns an iterator of the entries in the dictionary, by hash code.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the entries in the dictionary
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new TreeBucketIterator();
+    }
+
+    /**
+     * Returns an iterator of the values in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the values in the dictionary
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    @Override
+    public Iterator<V> values() {
+        return new ValuesIterator(iterator());
+    }
+
+    /**
+     * Returns an iterator of the keys in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the keys in the dictionary
+     */
+    @SuppressWarnings({"unchecked","rawtypes"})
+    @Override
+    public Iterator<K> keys() {
+        return new KeysIterator(iterator());
+    }
+
+    /**
+     * Iterator over the lists of the tree, one after the other.
+     */
+    private class TreeBucketIterator implements Iterator<Entry<K,V>> {
+
+        private final Iterator<Map<K,V>> lists;
+        private Iterator<Entry<K,V>> current;
+
+        TreeBucketIterator() {
+            lists = tree.values();
+            rewind();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        @Override
+        public Entry<K,V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<K,V> entry = current.next();
+            if (!current.hasNext()) {
+                current = lists.hasNext() ? lists.next().iterator() : null;
+            }
+            return entry;
+        }
+
+        @Override
+        public void rewind() {
+            lists.rewind();
+            // Lists of the tree are never empty.
+            current = lists.hasNext() ? lists.next().iterator() : null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package dataStructures;
+
+/**
+ * Position Abstract Data Type
+ * A handle to the place an element occupies in a {@link PositionalList}.
+ * The position stays valid until its element is removed from the list.
+ * @author AED  Team
+ * @version 1.0
+ * @param <E> Generic Element
+ *
+ */
+public interface Position<E> {
+
+    /**
+     * Returns the element stored at this position.
+     * @apiNote Time Complexity: O(1)
+     * @return element stored at this position
+     */
+    E getElement( );
+}
@@ -0,0 +1,176 @@
+package dataStructures;
+
+import dataStructures.exceptions.*;
+import java.io.*;
+
+/**
+ * Positional Doubly Linked List implementation.
+ * A {@link DoublyLinkedList} whose nodes are also the {@link Position}s
+ * handed out to the users of the list, which allows removals in constant time.
+ * Positions are not serialized: after deserialization the list holds new positions.
+ *
+ * @author AED team
+ * @version 1.0
+ * @param <E> Generic Element
+ */
+public class PositionalDoublyLinkedList<E> extends DoublyLinkedList<E> implements PositionalList<E>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Node of a positional list.
+     * Remembers the list it belongs to, so that foreign or removed positions are rejected.
+     */
+    static class PositionNode<E> extends DoublyListNode<E> implements Position<E> {
+
+        /**
+         * List that contains the node, or null once the node has been removed.
+         */
+        private PositionalDoublyLinkedList<E> owner;
+
+        PositionNode(E element, PositionalDoublyLinkedList<E> owner) {
+            super(element);
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Constructor for an empty positional doubly linked list.
+     *
+     * @apiNote Time Complexity: O(1)
+     */
+    public PositionalDoublyLinkedList() {
+        super();
+    }
+
+    /**
+     * Creates the nodes of the list as positions owned by this list.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @param element - Element to be stored in the node.
+     * @return The new node.
+     */
+    @Override
+    protected DoublyListNode<E> createNode(E element) {
+        return new PositionNode<>(element, this);
+    }
+
+    /**
+     * Returns the position of the first element of the list.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return Position of the first element in the list.
+     * @throws NoSuchElementException - if size() == 0.
+     */
+    @Override
+    public Position<E> firstPosition() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return (PositionNode<E>) head;
+    }
+
+    /**
+     * Returns the position of the last element of the list.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return Position of the last element in the list.
+     * @throws NoSuchElementException - if size() == 0.
+     */
+    @Override
+    public Position<E> lastPosition() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return (PositionNode<E>) tail;
+    }
+
+    /**
+     * Returns an iterator of the positions of the list (in proper sequence).
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return An {@link Iterator} of the positions of the list.
+     */
+    @Override
+    public Iterator<Position<E>> positions() {
+        return new DoublyPositionIterator<>(head);
+    }
+
+    /**
+     * Removes and returns the element at the specified position.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @param position - position of the element to be removed.
+     * @return Element removed from the list.
+     * @throws InvalidPositionException - if position is not a valid position of this list.
+     */
+    @Override
+    public E remove(Position<E> position) {
+        if (!(position instanceof PositionNode<E> node) || node.owner != this) {
+            throw new InvalidPositionException();
+        }
+        if (node == head) {
+            return removeFirst();
+        }
+        if (node == tail) {
+            return removeLast();
+        }
+        node.getPrevious().setNext(node.getNext());
+        node.getNext().setPrevious(node.getPrevious());
+        node.owner = null;
+        currentSize--;
+        return node.getElement();
+    }
+
+    /**
+     * Removes and returns the element at the specified index in the list.
+     * Range of valid indexes: 0, ..., size()-1.
+     *
+     * @apiNote Time Complexity: O(N) (Worst case O(N) to find the node; the removal itself is O(1)).
+     * @param position - index of element to be removed.
+     * @return Element removed at that index.
+     * @throws InvalidPositionException - if the index is not valid in the list.
+     */
+    @Override
+    public E remove(int position) {
+        if (position < 0 || position >= currentSize) {
+            throw new InvalidPositionException();
+        }
+        DoublyListNode<E> current = head;
+        for (int i = 0; i < position; i++) {
+            current = current.getNext();
+        }
+        return remove((PositionNode<E>) current);
+    }
+
+    /**
+     * Removes and returns the element at the first position in the list.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return Element removed from the first position of the list.
+     * @throws NoSuchElementException - if size() == 0.
+     */
+    @Override
+    public E removeFirst() {
+        if (!isEmpty()) {
+            ((PositionNode<E>) head).owner = null;
+        }
+        return super.removeFirst();
+    }
+
+    /**
+     * Removes and returns the element at the last position in the list.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return Element removed from the last position of the list.
+     * @throws NoSuchElementException - if size() == 0.
+     */
+    @Override
+    public E removeLast() {
+        if (!isEmpty()) {
+            ((PositionNode<E>) tail).owner = null;
+        }
+        return super.removeLast();
+    }
+}
@@ -0,0 +1,49 @@
+package dataStructures;
+
+import dataStructures.exceptions.*;
+
+/**
+ * Positional List Abstract Data Type
+ * A two-way list that hands out {@link Position}s for its elements,
+ * so that an element can later be removed without searching for it.
+ * @author AED  Team
+ * @version 1.0
+ * @param <E> Generic Element
+ *
+ */
+public interface PositionalList<E> extends TwoWayList<E> {
+
+    /**
+     * Returns the position of the first element of the list.
+     * @apiNote Time Complexity: O(1)
+     * @return position of the first element in the list
+     * @throws NoSuchElementException - if size() == 0
+     */
+    Position<E> firstPosition( );
+
+    /**
+     * Returns the position of the last element of the list.
+     * Called right after addLast, it returns the position of the added element.
+     * @apiNote Time Complexity: O(1)
+     * @return position of the last element in the list
+     * @throws NoSuchElementException - if size() == 0
+     */
+    Position<E> lastPosition( );
+
+    /**
+     * Returns an iterator of the positions of the list (in proper sequence).
+     * @apiNote Time Complexity: O(1)
+     * @return Iterator of the positions of the list
+     */
+    Iterator<Position<E>> positions( );
+
+    /**
+     * Removes and returns the element at the specified position.
+     * The position is no longer valid afterwards.
+     * @apiNote Time Complexity: O(1)
+     * @param position - position of the element to be removed
+     * @return element removed from the list
+     * @throws InvalidPositionException - if position is not a valid position of this list
+     */
+    E remove( Position<E> position );
+}
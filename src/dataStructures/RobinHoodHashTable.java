@@ -0,0 +1,237 @@
+package dataStructures;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Closed hash table with Robin Hood linear probing.
+ * <p>
+ * An insertion that probes past an entry closer to its home slot than the new
+ * one already is takes that slot, and goes on inserting the entry it displaced.
+ * Probe lengths stay close to the average, and a search stops as soon as it
+ * meets an entry closer to home than the key would be. Removal shifts the rest
+ * of the cluster back one slot, so unlike {@link ClosedHashTable} it leaves no
+ * removed cells, and lookups do not slow down as entries come and go.
+ *
+ * @param <K> Generic Key
+ * @param <V> Generic Value
+ */
+public class RobinHoodHashTable<K,V> extends HashTable<K,V> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    //Load factors
+    static final float IDEAL_LOAD_FACTOR = 0.5f;
+    static final float MAX_LOAD_FACTOR = 0.9f;
+    static final int NOT_FOUND = -1;
+
+    // The array of entries, of a power of two length.
+    private transient Entry<K,V>[] table;
+    // Spread hash codes of the entries, from which their home slots are found.
+    private transient int[] hashes;
+    private transient int mask;
+
+    /**
+     * Constructors
+     */
+
+    public RobinHoodHashTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RobinHoodHashTable(int capacity) {
+        super(capacity);
+        allocate(Integer.highestOneBit(Math.max(2, (int) (capacity / IDEAL_LOAD_FACTOR)) - 1) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int length) {
+        table = new Entry[length];
+        hashes = new int[length];
+        mask = length - 1;
+        maxSize = (int) (length * MAX_LOAD_FACTOR);
+    }
+
+    // Scrambles the hash code, so that keys with close hash codes land far apart.
+    static int spread(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    // Number of slots between the entry in the slot and its home slot.
+    private int distance(int slot) {
+        return (slot - hashes[slot]) & mask;
+    }
+
+    /**
+     * Robin Hood search
+     * @param key to search
+     * @param hash spread hash code of the key
+     * @return the index of the table where is the entry with the specified key, or NOT_FOUND
+     */
+    private int search(K key, int hash) {
+        int index = hash & mask;
+        for (int distance = 0; ; distance++) {
+            Entry<K,V> entry = table[index];
+            // The key would have taken the slot of an entry closer to home.
+            if (entry == null || distance(index) < distance) {
+                return NOT_FOUND;
+            }
+            if (hashes[index] == hash && entry.key().equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * returns its value; otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case, O(log n) expected longest probe
+     * @param key whose associated value is to be returned
+     * @return value of entry in the dictionary whose key is the specified key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V get(K key) {
+        int index = search(key, spread(key));
+        return index == NOT_FOUND ? null : table[index].value();
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * replaces its value by the specified value and returns the old value;
+     * otherwise, inserts the entry (key, value) and returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case, O(n) when the table grows
+     * @param key   with which the specified value is to be associated
+     * @param value to be associated with the specified key
+     * @return previous value associated with key,
+     * or null if the dictionary does not have an entry with that key
+     */
+    @Override
+    public V put(K key, V value) {
+        int hash = spread(key);
+        int index = search(key, hash);
+        if (index != NOT_FOUND) {
+            V oldValue = table[index].value();
+            table[index] = new Entry<>(key, value);
+            return oldValue;
+        }
+        if (isFull()) {
+            rehash();
+        }
+        insert(new Entry<>(key, value), hash);
+        currentSize++;
+        return null;
+    }
+
+    // Inserts an entry whose key is not in the table.
+    private void insert(Entry<K,V> entry, int hash) {
+        int index = hash & mask;
+        int distance = 0;
+        while (table[index] != null) {
+            int existing = distance(index);
+            if (existing < distance) {
+                Entry<K,V> displaced = table[index];
+                int displacedHash = hashes[index];
+                table[index] = entry;
+                hashes[index] = hash;
+                entry = displaced;
+                hash = displacedHash;
+                distance = existing;
+            }
+            index = (index + 1) & mask;
+            distance++;
+        }
+        table[index] = entry;
+        hashes[index] = hash;
+    }
+
+    private void rehash() {
+        Entry<K,V>[] oldTable = table;
+        int[] oldHashes = hashes;
+        allocate(oldTable.length * 2);
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != null) {
+                insert(oldTable[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * If there is an entry in the dictionary whose key is the specified key,
+     * removes it from the dictionary and returns its value;
+     * otherwise, returns null.
+     *
+     * @apiNote Time Complexity: O(1) average case
+     * @param key whose entry is to be removed from the map
+     * @return previous value associated with key,
+     * or null if the dictionary does not an entry with that key
+     */
+    @Override
+    public V remove(K key) {
+        int index = search(key, spread(key));
+        if (index == NOT_FOUND) {
+            return null;
+        }
+        V oldValue = table[index].value();
+        currentSize--;
+
+        // Shifts back the following entries, up to an empty slot or one at home.
+        int next = (index + 1) & mask;
+        while (table[next] != null && distance(next) > 0) {
+            table[index] = table[next];
+            hashes[index] = hashes[next];
+            index = next;
+            next = (next + 1) & mask;
+        }
+        table[index] = null;
+        hashes[index] = 0;
+        return oldValue;
+    }
+
+    /**
+     * Returns an iterator of the entries in the dictionary.
+     *
+     * @apiNote Time Complexity: O(1)
+     * @return iterator of the entries in the dictionary
+     */
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+        return new FilterIterator<>(new ArrayIterator<>(table, table.length), entry -> entry != null);
+    }
+
+    @Serial
+    private void writeObject(java.io.ObjectOutputStream out)
+            throws java.io.IOException {
+        out.defaultWriteObject();
+        out.writeInt(table.length);
+        for (Entry<K,V> entry : table) {
+            if (entry != null) {
+                out.writeObject(entry.key());
+                out.writeObject(entry.value());
+            }
+        }
+        out.writeObject(null); // End marker
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(java.io.ObjectInputStream in)
+            throws java.io.IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        allocate(in.readInt());
+        currentSize = 0;
+
+        Object key;
+        while ((key = in.readObject()) != null) {
+            V value = (V) in.readObject();
+            put((K) key, value);
+        }
+    }
+}
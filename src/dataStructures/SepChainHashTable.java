@@ -5,6 +5,11 @@ import java.io.Serializable;
 
 /**
  * SepChain Hash Table
+ * <p>
+ * Each bucket is a singly linked list until it holds more than
+ * {@link #TREEIFY_THRESHOLD} entries, when it becomes a {@link MapTreeBucket}, so
+ * that keys with poorly spread hash codes cost O(log N) to find instead of O(N).
+ * It goes back to a list once it falls below {@link #UNTREEIFY_THRESHOLD}.
  * @author AED  Team
  * @version 1.0
  * @param <K> Generic Key
@@ -17,29 +22,70 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
     //Load factors
     static final float IDEAL_LOAD_FACTOR =0.75f;
     static final float MAX_LOAD_FACTOR =0.9f;
+    // Buckets of the previous array moved by each put or remove during an incremental rehash.
+    static final int BUCKETS_MOVED_PER_OPERATION = 4;
+    // Sizes above which a bucket becomes a tree, and below which it goes back to a list.
+    static final int TREEIFY_THRESHOLD = 8;
+    static final int UNTREEIFY_THRESHOLD = 6;
 
-    // The array of Map with singly linked list.
+    // The array of Map with singly linked list; a bucket is created on its first put.
     private transient Map<K,V>[] table;
 
+    // Whether the table grows by incremental rehashes instead of all at once.
+    private final boolean incremental;
+    // During an incremental rehash, the previous array, whose moved buckets are null.
+    private transient Map<K,V>[] oldTable;
+    // Next bucket of the previous array to move.
+    private transient int nextToMove;
+
     public SepChainHashTable( ){
         this(DEFAULT_CAPACITY);
     }
 
-    @SuppressWarnings("unchecked")
     public SepChainHashTable( int capacity ){
+        this(capacity, false);
+    }
+
+    /**
+     * Constructor with an incremental rehash mode. In that mode, a full table
+     * does not move every entry at once to a larger array: it keeps both arrays
+     * and moves a few buckets of the old one on each put or remove, so that no
+     * single operation pays for the whole rehash.
+     *
+     * @param capacity - predicted number of entries
+     * @param incremental - whether the table rehashes incrementally
+     */
+    @SuppressWarnings("unchecked")
+    public SepChainHashTable( int capacity, boolean incremental ){
         super(capacity);
+        this.incremental = incremental;
 
         int arraySize = HashTable.nextPrime((int)(capacity/IDEAL_LOAD_FACTOR));
-        this.table =  new MapSinglyList[arraySize];
-        for (int i = 0; i < arraySize; i++){
-            table[i] = new MapSinglyList<>();
-        }
+        this.table =  new Map[arraySize];
         this.maxSize = (int)(arraySize * MAX_LOAD_FACTOR);
     }
 
     // Returns the hash value of the specified key.
     protected int hash( K key ){
-        return Math.abs( key.hashCode() ) % table.length;
+        return hash(key, table.length);
+    }
+
+    private int hash( K key, int length ){
+        return Math.abs( key.hashCode() ) % length;
+    }
+
+    /**
+     * Returns the bucket holding the key, if any: during an incremental rehash,
+     * the bucket of the previous array if it was not moved yet.
+     */
+    private Map<K,V> bucketOf(K key) {
+        if (oldTable != null) {
+            Map<K,V> old = oldTable[hash(key, oldTable.length)];
+            if (old != null) {
+                return old;
+            }
+        }
+        return table[hash(key)];
     }
     /**
      * If there is an entry in the dictionary whose key is the specified key,
@@ -50,8 +96,8 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
      * or null if the dictionary does not have an entry with that key
      */
     public V get(K key) {
-        int index = hash(key);
-        return table[index].get(key);
+        Map<K,V> bucket = bucketOf(key);
+        return bucket == null ? null : bucket.get(key);
     }
 
     /**
@@ -67,10 +113,9 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
     public V put(K key, V value) {
         if (isFull())
             rehash();
+        moveBuckets(key);
 
-        int index = hash(key);
-        Map<K,V> map = table[index];
-        V oldValue = map.put(key, value);
+        V oldValue = putInBucket(hash(key), key, value);
 
         if (oldValue == null) {
             currentSize++;
@@ -78,25 +123,80 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
         return oldValue;
     }
 
+    // Puts the entry in a bucket of the current array, turning a long list into a tree.
+    private V putInBucket(int index, K key, V value) {
+        Map<K,V> map = table[index];
+        if (map == null) {
+            map = new MapSinglyList<>();
+            table[index] = map;
+        }
+        V oldValue = map.put(key, value);
+        if (oldValue == null && map.size() > TREEIFY_THRESHOLD && map instanceof MapSinglyList) {
+            table[index] = new MapTreeBucket<>(map);
+        }
+        return oldValue;
+    }
+
     @SuppressWarnings("unchecked")
     private void rehash() {
-        Map<K,V>[] oldTable = table;
-        int newArraySize = HashTable.nextPrime(2 * oldTable.length);
-        table =  new MapSinglyList[newArraySize];
-        for (int i = 0; i < newArraySize; i++) {
-            table[i] = new MapSinglyList<>();
+        if (oldTable != null) {
+            // The previous incremental rehash did not finish in time.
+            moveBuckets(oldTable.length);
         }
-        this.currentSize = 0;
+        Map<K,V>[] previous = table;
+        int newArraySize = HashTable.nextPrime(2 * previous.length);
+        table =  new Map[newArraySize];
         this.maxSize = (int)(newArraySize * IDEAL_LOAD_FACTOR);
 
-        for (Map<K,V> map : oldTable) {
-            Iterator<Entry<K,V>> it = map.iterator();
-            while (it.hasNext()) {
-                Entry<K,V> entry = it.next();
-                this.put(entry.key(), entry.value());
+        if (incremental) {
+            oldTable = previous;
+            nextToMove = 0;
+            return;
+        }
+        for (Map<K,V> map : previous) {
+            if (map != null) {
+                moveBucket(map);
             }
         }
+    }
 
+    /**
+     * During an incremental rehash, moves the bucket of the previous array that
+     * may hold the key, so that the key is only ever put in or removed from the
+     * current array, and then a few more buckets.
+     */
+    private void moveBuckets(K key) {
+        if (oldTable == null) {
+            return;
+        }
+        int index = hash(key, oldTable.length);
+        if (oldTable[index] != null) {
+            moveBucket(oldTable[index]);
+            oldTable[index] = null;
+        }
+        moveBuckets(BUCKETS_MOVED_PER_OPERATION);
+    }
+
+    // Moves the next buckets of the previous array, ending the rehash after the last one.
+    private void moveBuckets(int count) {
+        for (; count > 0 && nextToMove < oldTable.length; count--, nextToMove++) {
+            if (oldTable[nextToMove] != null) {
+                moveBucket(oldTable[nextToMove]);
+                oldTable[nextToMove] = null;
+            }
+        }
+        if (nextToMove == oldTable.length) {
+            oldTable = null;
+        }
+    }
+
+    // Puts the entries of a bucket of the previous array in the current one.
+    private void moveBucket(Map<K,V> bucket) {
+        Iterator<Entry<K,V>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            putInBucket(hash(entry.key()), entry.key(), entry.value());
+        }
     }
 
     /**
@@ -104,20 +204,39 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
      * removes it from the dictionary and returns its value;
      * otherwise, returns null.
      *
-     * @apiNote Time Complexity: O(1) average case, O(N) worst case if all keys hash to same bucket
+     * @apiNote Time Complexity: O(1) average case, O(log N) worst case if all keys hash to same bucket
      * @param key whose entry is to be removed from the map
      * @return previous value associated with key,
      * or null if the dictionary does not an entry with that key
      */
     public V remove(K key) {
+        moveBuckets(key);
         int index = hash(key);
-        V oldValue = table[index].remove(key);
+        Map<K,V> bucket = table[index];
+        if (bucket == null) {
+            return null;
+        }
+        V oldValue = bucket.remove(key);
         if (oldValue != null) {
             currentSize--;
+            if (bucket.size() < UNTREEIFY_THRESHOLD && bucket instanceof MapTreeBucket) {
+                table[index] = untreeify(bucket);
+            }
         }
         return oldValue;
     }
 
+    // Returns a list with the entries of a bucket that became short enough.
+    private Map<K,V> untreeify(Map<K,V> bucket) {
+        Map<K,V> list = new MapSinglyList<>();
+        Iterator<Entry<K,V>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            list.put(entry.key(), entry.value());
+        }
+        return list;
+    }
+
     /**
      * Returns an iterator of the entries in the dictionary.
      *
@@ -125,7 +244,7 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
      * @return iterator of the entries in the dictionary
      */
     public Iterator<Entry<K, V>> iterator() {
-        return new SepChainHashTableIterator<>(table);
+        return new SepChainHashTableIterator<>(table, oldTable);
     }
 
 
@@ -134,13 +253,11 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
             throws java.io.IOException {
         out.defaultWriteObject();
         out.writeInt(table.length);
-        for (Map<K,V> map : table) {
-            Iterator<Entry<K,V>> it = map.iterator();
-            while (it.hasNext()) {
-                Entry<K,V> entry = it.next();
-                out.writeObject(entry.key());
-                out.writeObject(entry.value());
-            }
+        Iterator<Entry<K,V>> it = iterator();
+        while (it.hasNext()) {
+            Entry<K,V> entry = it.next();
+            out.writeObject(entry.key());
+            out.writeObject(entry.value());
         }
         out.writeObject(null); // End marker
     }
@@ -152,10 +269,8 @@ public class SepChainHashTable<K,V> extends HashTable<K,V> implements Serializab
         in.defaultReadObject();
 
         int tableLength = in.readInt();
-        this.table =  new MapSinglyList[tableLength];
-        for (int i = 0; i < tableLength; i++) {
-            table[i] = new MapSinglyList<>();
-        }
+        this.table =  new Map[tableLength];
+        this.currentSize = 0;
 
         Object key;
         while ((key = in.readObject()) != null) {
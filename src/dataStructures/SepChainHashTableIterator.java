@@ -11,6 +11,8 @@ import dataStructures.exceptions.NoSuchElementException;
 class SepChainHashTableIterator<K,V> implements Iterator<Map.Entry<K,V>> {
 
     private Map<K,V>[] table;
+    // Buckets still to be moved by an incremental rehash, iterated after the table, or null.
+    private Map<K,V>[] oldTable;
     private int currentBucketIndex;
     private Iterator<Map.Entry<K,V>> currentBucketIterator;
     /**
@@ -19,7 +21,18 @@ class SepChainHashTableIterator<K,V> implements Iterator<Map.Entry<K,V>> {
      * @param table - hash table array
      */
     public SepChainHashTableIterator(Map<K,V>[] table) {
+        this(table, null);
+    }
+
+    /**
+     * Constructor for a table in the middle of an incremental rehash
+     * @apiNote Time Complexity: O(M) worst case where M is the size of both tables
+     * @param table - hash table array
+     * @param oldTable - buckets of the previous array not moved yet, or null
+     */
+    public SepChainHashTableIterator(Map<K,V>[] table, Map<K,V>[] oldTable) {
         this.table = table;
+        this.oldTable = oldTable;
         this.rewind();
     }
 
@@ -73,9 +86,13 @@ class SepChainHashTableIterator<K,V> implements Iterator<Map.Entry<K,V>> {
         }
         currentBucketIndex++;
 
-        while(currentBucketIndex < table.length) {
-            if(!table[currentBucketIndex].isEmpty()) {
-                currentBucketIterator = table[currentBucketIndex].iterator();
+        int buckets = table.length + (oldTable == null ? 0 : oldTable.length);
+        while(currentBucketIndex < buckets) {
+            Map<K,V> bucket = currentBucketIndex < table.length
+                    ? table[currentBucketIndex] : oldTable[currentBucketIndex - table.length];
+            // Buckets are only created once something is put in them.
+            if(bucket != null && !bucket.isEmpty()) {
+                currentBucketIterator = bucket.iterator();
                 return;
             }
             currentBucketIndex++;
@@ -0,0 +1,60 @@
+package dataStructures;
+
+/**
+ * Spatial Index Abstract Data Type
+ * Includes description of general methods for a collection of elements
+ * placed at integer coordinates, queried by Manhattan (L1) distance.
+ * @author AED  Team
+ * @version 1.0
+ * @param <E> Generic Element
+ *
+ */
+public interface SpatialIndex<E> {
+
+    /**
+     * Returns true iff the index contains no elements.
+     * @apiNote Time Complexity: O(1)
+     * @return true iff the index is empty
+     */
+    boolean isEmpty( );
+
+    /**
+     * Returns the number of elements in the index.
+     * @apiNote Time Complexity: O(1)
+     * @return number of elements in the index
+     */
+    int size( );
+
+    /**
+     * Inserts the element at the given coordinates.
+     * The element is considered newer than every element already in the index.
+     * @apiNote Time Complexity: Implementation-dependent.
+     * O(1) amortized for grid-based indexes.
+     * @param element - element to be inserted
+     * @param x - first coordinate of the element
+     * @param y - second coordinate of the element
+     */
+    void insert( E element, long x, long y );
+
+    /**
+     * Removes the element stored at the given coordinates.
+     * @apiNote Time Complexity: Implementation-dependent.
+     * O(1) average for grid-based indexes.
+     * @param element - element to be removed
+     * @param x - first coordinate the element was inserted with
+     * @param y - second coordinate the element was inserted with
+     * @return true iff the element was found and removed
+     */
+    boolean remove( E element, long x, long y );
+
+    /**
+     * Returns all the elements at the smallest Manhattan distance
+     * from the given point, oldest insertion first.
+     * @apiNote Time Complexity: Implementation-dependent.
+     * Proportional to the neighbourhood searched for grid-based indexes.
+     * @param x - first coordinate of the point
+     * @param y - second coordinate of the point
+     * @return iterator of the closest elements (empty if the index is empty)
+     */
+    Iterator<E> nearest( long x, long y );
+}
@@ -0,0 +1,7 @@
+package dataStructures.exceptions;
+
+public class FullQueueException extends RuntimeException {
+    public FullQueueException() {
+        super();
+    }
+}